@@ -0,0 +1,66 @@
+package com.demo.oauth;
+
+import com.demo.oauth.model.AuthResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the old HashMap/Map.of login body against the AuthResponse record,
+ * with and without Blackbird. Run with ./gradlew jmh; the gc profiler reports
+ * gc.alloc.rate.norm, the bytes allocated per response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseSerializationBenchmark {
+
+    private final ObjectMapper plainMapper = new ObjectMapper();
+    private final ObjectWriter recordWriter = new ObjectMapper().registerModule(new BlackbirdModule())
+            .writerFor(AuthResponse.class);
+    private final ObjectWriter plainRecordWriter = plainMapper.writerFor(AuthResponse.class);
+
+    private final Long id = 42L;
+    private final String name = "Test User";
+    private final String email = "test@example.com";
+
+    @Benchmark
+    public byte[] hashMapBody() throws Exception {
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", "Login successful");
+        response.put("user", Map.of(
+            "id", id,
+            "name", name,
+            "email", email
+        ));
+        return plainMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] recordBody() throws Exception {
+        return plainRecordWriter.writeValueAsBytes(
+                new AuthResponse("Login successful", new AuthResponse.Account(id, name, email)));
+    }
+
+    @Benchmark
+    public byte[] recordBodyBlackbird() throws Exception {
+        return recordWriter.writeValueAsBytes(
+                new AuthResponse("Login successful", new AuthResponse.Account(id, name, email)));
+    }
+}
@@ -0,0 +1,19 @@
+package com.demo.oauth.config;
+
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Tunes the single application ObjectMapper shared by MVC and JwtUtil.
+ * Spring Boot registers any Module bean with that mapper.
+ */
+@Configuration
+public class JacksonConfig {
+
+    // Replaces reflective getter/constructor calls with generated lambdas
+    @Bean
+    public BlackbirdModule blackbirdModule() {
+        return new BlackbirdModule();
+    }
+}
@@ -0,0 +1,65 @@
+package com.demo.oauth.config;
+
+import com.demo.oauth.model.AuditEvent;
+import com.demo.oauth.service.AuditService;
+import com.demo.oauth.util.JwtUtil;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Authenticates requests carrying a Keycloak bearer token whose signature was
+ * verified against its realm's JWK set. Realm roles become ROLE_ authorities and
+ * scopes SCOPE_ authorities. Requests without a token, or with one that fails
+ * validation, continue unauthenticated and are turned away by the authorization
+ * rules if the route needs a login.
+ */
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+    private final JwtUtil jwtUtil;
+    private final AuditService auditService;
+
+    public JwtAuthenticationFilter(JwtUtil jwtUtil, AuditService auditService) {
+        this.jwtUtil = jwtUtil;
+        this.auditService = auditService;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String authHeader = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            try {
+                Map<String, Object> claims = jwtUtil.validateAndDecodeSignedToken(authHeader.substring(7));
+                List<GrantedAuthority> authorities = new ArrayList<>();
+                for (String role : jwtUtil.extractRealmRoles(claims)) {
+                    authorities.add(new SimpleGrantedAuthority("ROLE_" + role));
+                }
+                for (String scope : jwtUtil.extractScopes(claims)) {
+                    authorities.add(new SimpleGrantedAuthority("SCOPE_" + scope));
+                }
+                String principal = jwtUtil.extractSub(claims);
+                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                        principal != null ? principal : jwtUtil.extractEmail(claims), null, authorities);
+                authentication.setDetails(claims);
+                SecurityContextHolder.getContext().setAuthentication(authentication);
+            } catch (RuntimeException e) {
+                SecurityContextHolder.clearContext();
+                auditService.publish(AuditEvent.Type.TOKEN_REJECTED, null, e.getMessage());
+            }
+        }
+        chain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,69 @@
+package com.demo.oauth.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Realms whose tokens JwtUtil accepts, bound from keycloak.realms in application.yml
+ */
+@ConfigurationProperties(prefix = "keycloak")
+public class KeycloakRealmProperties {
+
+    private List<Realm> realms = new ArrayList<>();
+
+    public List<Realm> getRealms() {
+        return realms;
+    }
+
+    public void setRealms(List<Realm> realms) {
+        this.realms = realms;
+    }
+
+    public static class Realm {
+
+        // Must match the token's iss claim exactly
+        private String issuer;
+
+        private List<String> audiences = new ArrayList<>();
+
+        private Duration clockSkew = Duration.ZERO;
+
+        // When set, token signatures are checked against this realm's JWK set
+        private String jwksUri;
+
+        public String getIssuer() {
+            return issuer;
+        }
+
+        public void setIssuer(String issuer) {
+            this.issuer = issuer;
+        }
+
+        public List<String> getAudiences() {
+            return audiences;
+        }
+
+        public void setAudiences(List<String> audiences) {
+            this.audiences = audiences;
+        }
+
+        public Duration getClockSkew() {
+            return clockSkew;
+        }
+
+        public void setClockSkew(Duration clockSkew) {
+            this.clockSkew = clockSkew;
+        }
+
+        public String getJwksUri() {
+            return jwksUri;
+        }
+
+        public void setJwksUri(String jwksUri) {
+            this.jwksUri = jwksUri;
+        }
+    }
+}
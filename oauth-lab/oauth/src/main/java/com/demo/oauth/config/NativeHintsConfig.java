@@ -0,0 +1,69 @@
+package com.demo.oauth.config;
+
+import com.demo.oauth.model.AuthResponse;
+import com.demo.oauth.model.ErrorResponse;
+import com.demo.oauth.model.OAuthCallbackResponse;
+import com.demo.oauth.model.ProfileResponse;
+import com.demo.oauth.model.TokenResponse;
+import com.demo.oauth.model.User;
+import com.demo.oauth.model.UserPage;
+import com.demo.oauth.model.UserResponse;
+import com.demo.oauth.model.UserSummary;
+import com.demo.oauth.service.UserBulkService;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+/**
+ * Reachability metadata for the native image. Controllers return ResponseEntity<?>,
+ * so AOT cannot infer the JSON types, and jjwt loads its implementation by class name.
+ */
+@Configuration
+@RegisterReflectionForBinding({
+    User.class, TokenResponse.class, UserResponse.class, AuthResponse.class, ErrorResponse.class,
+    ProfileResponse.class, OAuthCallbackResponse.class, UserSummary.class, UserPage.class,
+    UserBulkService.ImportResult.class
+})
+@ImportRuntimeHints(NativeHintsConfig.JjwtHints.class)
+public class NativeHintsConfig {
+
+    static class JjwtHints implements RuntimeHintsRegistrar {
+
+        private static final String[] JJWT_TYPES = {
+            "io.jsonwebtoken.impl.DefaultJwtBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtHeaderBuilder",
+            "io.jsonwebtoken.impl.DefaultClaimsBuilder",
+            "io.jsonwebtoken.impl.io.StandardCompressionAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardSecureDigestAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardKeyAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardEncryptionAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardHashAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardKeyOperations",
+            "io.jsonwebtoken.impl.security.StandardCurves",
+            "io.jsonwebtoken.impl.security.DefaultDynamicJwkBuilder",
+            "io.jsonwebtoken.impl.security.DefaultJwkParserBuilder",
+            "io.jsonwebtoken.impl.security.DefaultJwkSetBuilder",
+            "io.jsonwebtoken.impl.security.DefaultJwkSetParserBuilder",
+            "io.jsonwebtoken.impl.security.DefaultKeyOperationBuilder",
+            "io.jsonwebtoken.impl.security.DefaultKeyOperationPolicyBuilder",
+            "io.jsonwebtoken.jackson.io.JacksonSerializer",
+            "io.jsonwebtoken.jackson.io.JacksonDeserializer"
+        };
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            for (String type : JJWT_TYPES) {
+                hints.reflection().registerType(TypeReference.of(type),
+                        MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                        MemberCategory.INVOKE_PUBLIC_METHODS);
+            }
+            // jjwt discovers its JSON serializer through ServiceLoader
+            hints.resources().registerPattern("META-INF/services/io.jsonwebtoken.io.*");
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.demo.oauth.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Spreads read-only connections round-robin over the replicas that passed the
+ * last health check, falling back to the primary when none are usable
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private static final String PRIMARY_LSN_QUERY = "SELECT pg_current_wal_lsn()::text";
+
+    // Lag is zero on a primary or on a replica that has replayed up to the primary's
+    // current position. Otherwise it is the age of the last replayed transaction, which
+    // keeps growing when the WAL stream stalls even though nothing is left to replay locally.
+    private static final String LAG_QUERY =
+            "SELECT CASE WHEN NOT pg_is_in_recovery() THEN 0.0 "
+            + "WHEN pg_wal_lsn_diff(?::pg_lsn, pg_last_wal_replay_lsn()) <= 0 THEN 0.0 "
+            + "ELSE COALESCE(EXTRACT(EPOCH FROM (now() - pg_last_xact_replay_timestamp()))::float8, "
+            + "'Infinity'::float8) END";
+
+    private final DataSource primary;
+    private final Map<String, DataSource> replicas;
+    private final Duration maxLag;
+    private final Map<String, Double> lagSeconds = new ConcurrentHashMap<>();
+    private final AtomicInteger counter = new AtomicInteger();
+
+    private volatile List<String> healthyReplicas = List.of();
+
+    // Until the first check, every replica counts as healthy for logging, so startup failures are reported
+    private volatile boolean checked;
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, Duration maxLag) {
+        this.primary = primary;
+        this.replicas = replicas;
+        this.maxLag = maxLag;
+        setDefaultTargetDataSource(primary);
+        setTargetDataSources(new HashMap<>(replicas));
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        List<String> healthy = healthyReplicas;
+        if (healthy.isEmpty()) {
+            return null;
+        }
+        return healthy.get(Math.floorMod(counter.getAndIncrement(), healthy.size()));
+    }
+
+    /**
+     * Measures replication lag on every replica and rebuilds the rotation
+     */
+    @Scheduled(fixedDelayString = "${app.datasource.health-check-interval:10s}")
+    public void checkReplicas() {
+        if (replicas.isEmpty()) {
+            return;
+        }
+        String primaryLsn;
+        try (Connection connection = primary.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(PRIMARY_LSN_QUERY)) {
+            resultSet.next();
+            primaryLsn = resultSet.getString(1);
+        } catch (Exception e) {
+            // Without the primary's position a stalled replica cannot be told apart from a current one
+            if (!checked || !healthyReplicas.isEmpty()) {
+                log.warn("Could not read primary WAL position, removing all replicas from rotation: {}", e.getMessage());
+            } else {
+                log.debug("Could not read primary WAL position: {}", e.getMessage());
+            }
+            replicas.keySet().forEach(name -> lagSeconds.put(name, Double.NaN));
+            healthyReplicas = List.of();
+            checked = true;
+            return;
+        }
+
+        List<String> healthy = new ArrayList<>();
+        for (Map.Entry<String, DataSource> entry : replicas.entrySet()) {
+            String name = entry.getKey();
+            try (Connection connection = entry.getValue().getConnection();
+                 PreparedStatement statement = connection.prepareStatement(LAG_QUERY)) {
+                statement.setString(1, primaryLsn);
+                double lag;
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    resultSet.next();
+                    lag = resultSet.getDouble(1);
+                }
+                lagSeconds.put(name, lag);
+                if (lag * 1000 <= maxLag.toMillis()) {
+                    healthy.add(name);
+                } else if (wasHealthy(name)) {
+                    log.warn("Replica {} is {}s behind primary, removing from rotation", name, lag);
+                } else {
+                    log.debug("Replica {} is still {}s behind primary", name, lag);
+                }
+            } catch (Exception e) {
+                lagSeconds.put(name, Double.NaN);
+                if (wasHealthy(name)) {
+                    log.warn("Replica {} failed health check, removing from rotation: {}", name, e.getMessage());
+                } else {
+                    log.debug("Replica {} failed health check: {}", name, e.getMessage());
+                }
+            }
+        }
+        for (String name : healthy) {
+            if (checked && !isHealthy(name)) {
+                log.info("Replica {} is back in rotation", name);
+            }
+        }
+        healthyReplicas = List.copyOf(healthy);
+        checked = true;
+    }
+
+    public boolean isHealthy(String name) {
+        return healthyReplicas.contains(name);
+    }
+
+    // Only changes of state are logged at warn or info, so a replica that stays unhealthy is not reported every interval
+    private boolean wasHealthy(String name) {
+        return !checked || isHealthy(name);
+    }
+
+    public double getLagSeconds(String name) {
+        return lagSeconds.getOrDefault(name, Double.NaN);
+    }
+
+    /**
+     * Shuts down the replica pools, which are not beans of their own
+     */
+    public void close() throws Exception {
+        for (DataSource replica : replicas.values()) {
+            if (replica instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
@@ -1,24 +1,58 @@
 package com.demo.oauth.config;
 
+import com.demo.oauth.service.AuditService;
+import com.demo.oauth.util.JwtUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 @Configuration
 @EnableWebSecurity
+@EnableConfigurationProperties(KeycloakRealmProperties.class)
 public class SecurityConfig {
 
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private AuditService auditService;
+
+    // Keycloak realm role or client scope that grants access to the user administration routes
+    // (bulk import/export and search)
+    @Value("${app.security.admin-role:user-admin}")
+    private String adminRole;
+
+    @Value("${app.security.admin-scope:users.admin}")
+    private String adminScope;
+
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
             .csrf(csrf -> csrf.disable())
+            .addFilterBefore(new JwtAuthenticationFilter(jwtUtil, auditService), UsernamePasswordAuthenticationFilter.class)
             .authorizeHttpRequests(authz -> authz
-                .requestMatchers("/oauth/**", "/api/users/**").permitAll()
+                // Bulk import and export expose every account, so they are limited to administrators
+                .requestMatchers("/api/users/import", "/api/users/export")
+                    .hasAnyAuthority("ROLE_" + adminRole, "SCOPE_" + adminScope)
+                // Search lists every account page by page, so it is guarded the same way
+                .requestMatchers(HttpMethod.GET, "/api/users")
+                    .hasAnyAuthority("ROLE_" + adminRole, "SCOPE_" + adminScope)
+                .requestMatchers("/oauth/**", "/api/users/**", "/actuator/health/**").permitAll()
                 .anyRequest().authenticated()
+            )
+            .exceptionHandling(exceptions -> exceptions
+                .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED))
             );
         
         return http.build();
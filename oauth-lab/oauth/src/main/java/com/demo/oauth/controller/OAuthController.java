@@ -1,7 +1,12 @@
 package com.demo.oauth.controller;
 
+import com.demo.oauth.model.AuditEvent;
+import com.demo.oauth.model.ErrorResponse;
+import com.demo.oauth.model.OAuthCallbackResponse;
 import com.demo.oauth.model.TokenResponse;
 import com.demo.oauth.model.User;
+import com.demo.oauth.model.UserResponse;
+import com.demo.oauth.service.AuditService;
 import com.demo.oauth.service.UserService;
 import com.demo.oauth.util.JwtUtil;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,7 +16,6 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
-import java.util.HashMap;
 import java.util.Map;
 
 @RestController
@@ -36,6 +40,9 @@ public class OAuthController {
     
     @Autowired
     private JwtUtil jwtUtil;
+    
+    @Autowired
+    private AuditService auditService;
 
     private final RestTemplate restTemplate = new RestTemplate();
 
@@ -83,22 +90,14 @@ public class OAuthController {
             
             // Use real Keycloak user data
             User oauthUser = userService.createOrUpdateOAuthUser(name, email, externalId);
+            auditService.publish(AuditEvent.Type.OAUTH_USER_PROVISIONED, email, "sub=" + externalId);
 
-            Map<String, Object> result = new HashMap<>();
-            result.put("tokens", tokenData);
-            result.put("user", Map.of(
-                "id", oauthUser.getId(),
-                "name", oauthUser.getName(),
-                "email", oauthUser.getEmail(),
-                "authProvider", oauthUser.getAuthProvider()
-            ));
-
-            return ResponseEntity.ok(result);
+            return ResponseEntity.ok(new OAuthCallbackResponse(tokenData, UserResponse.from(oauthUser)));
         } catch (Exception e) {
             System.err.println("Error exchanging authorization code for tokens: " + e.getMessage());
             e.printStackTrace();
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(Map.of("error", "Failed to exchange code for tokens: " + e.getMessage()));
+                    .body(new ErrorResponse("Failed to exchange code for tokens: " + e.getMessage()));
         }
     }
 
@@ -1,13 +1,33 @@
 package com.demo.oauth.controller;
 
+import com.demo.oauth.model.AuditEvent;
+import com.demo.oauth.model.AuthResponse;
+import com.demo.oauth.model.ErrorResponse;
+import com.demo.oauth.model.ProfileResponse;
 import com.demo.oauth.model.User;
+import com.demo.oauth.model.UserPage;
+import com.demo.oauth.model.UserResponse;
+import com.demo.oauth.service.AuditService;
+import com.demo.oauth.service.UserBulkService;
+import com.demo.oauth.service.UserETagCache;
 import com.demo.oauth.service.UserService;
 import com.demo.oauth.util.JwtUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.HashMap;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.Map;
 import java.util.Optional;
 
@@ -16,9 +36,26 @@ import java.util.Optional;
 @CrossOrigin(origins = "*")
 public class UserController {
     
+    // Fixed error bodies are built once and shared across requests
+    private static final ErrorResponse MISSING_REGISTRATION_FIELDS = new ErrorResponse("Name, email, and password are required");
+    private static final ErrorResponse MISSING_LOGIN_FIELDS = new ErrorResponse("Email and password are required");
+    private static final ErrorResponse INVALID_CREDENTIALS = new ErrorResponse("Invalid email or password");
+    private static final ErrorResponse LOGIN_FAILED = new ErrorResponse("Login failed");
+    private static final ErrorResponse INVALID_LIMIT = new ErrorResponse("limit must be between 1 and 500");
+    private static final ErrorResponse MISSING_AUTHORIZATION = new ErrorResponse("Missing or invalid Authorization header");
+    
     @Autowired
     private UserService userService;
     
+    @Autowired
+    private UserBulkService userBulkService;
+    
+    @Autowired
+    private UserETagCache userETagCache;
+    
+    @Autowired
+    private AuditService auditService;
+    
     @Autowired
     private JwtUtil jwtUtil;
     
@@ -30,23 +67,15 @@ public class UserController {
             String password = request.get("password");
             
             if (name == null || email == null || password == null) {
-                return ResponseEntity.badRequest().body(Map.of("error", "Name, email, and password are required"));
+                return ResponseEntity.badRequest().body(MISSING_REGISTRATION_FIELDS);
             }
             
             User user = userService.registerUser(name, email, password);
             
-            Map<String, Object> response = new HashMap<>();
-            response.put("message", "User registered successfully");
-            response.put("user", Map.of(
-                "id", user.getId(),
-                "name", user.getName(),
-                "email", user.getEmail()
-            ));
-            
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(AuthResponse.of("User registered successfully", user));
             
         } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
         }
     }
     
@@ -57,63 +86,120 @@ public class UserController {
             String password = request.get("password");
             
             if (email == null || password == null) {
-                return ResponseEntity.badRequest().body(Map.of("error", "Email and password are required"));
+                return ResponseEntity.badRequest().body(MISSING_LOGIN_FIELDS);
             }
             
             Optional<User> userOpt = userService.authenticateUser(email, password);
             
             if (userOpt.isPresent()) {
                 User user = userOpt.get();
+                auditService.publish(AuditEvent.Type.LOGIN_SUCCESS, email, null);
                 
-                Map<String, Object> response = new HashMap<>();
-                response.put("message", "Login successful");
-                response.put("user", Map.of(
-                    "id", user.getId(),
-                    "name", user.getName(),
-                    "email", user.getEmail()
-                ));
-                
-                return ResponseEntity.ok(response);
+                return ResponseEntity.ok(AuthResponse.of("Login successful", user));
             } else {
-                return ResponseEntity.badRequest().body(Map.of("error", "Invalid email or password"));
+                auditService.publish(AuditEvent.Type.LOGIN_FAILURE, email, "Invalid email or password");
+                return ResponseEntity.badRequest().body(INVALID_CREDENTIALS);
             }
             
         } catch (Exception e) {
-            return ResponseEntity.badRequest().body(Map.of("error", "Login failed"));
+            auditService.publish(AuditEvent.Type.LOGIN_FAILURE, request.get("email"), e.getMessage());
+            return ResponseEntity.badRequest().body(LOGIN_FAILED);
+        }
+    }
+    
+    /**
+     * Lists users ordered by creation time, optionally filtered. Pass the returned
+     * nextCursor back as cursor to fetch the following page.
+     */
+    @GetMapping
+    public ResponseEntity<?> searchUsers(@RequestParam(required = false) String authProvider,
+                                         @RequestParam(required = false) String emailPrefix,
+                                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+                                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo,
+                                         @RequestParam(required = false) String cursor,
+                                         @RequestParam(defaultValue = "50") int limit) {
+        if (limit < 1 || limit > 500) {
+            return ResponseEntity.badRequest().body(INVALID_LIMIT);
+        }
+        
+        try {
+            UserPage page = userService.searchUsers(authProvider, emailPrefix, createdFrom, createdTo, cursor, limit);
+            return ResponseEntity.ok(page);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+    
+    /**
+     * Bulk import of users with pre-hashed (BCrypt) passwords, one NDJSON object
+     * or CSV record per user. Bad rows are reported without aborting the import.
+     */
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", "text/csv"})
+    public ResponseEntity<?> importUsers(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                         InputStream body) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            UserBulkService.ImportResult result = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.valueOf("text/csv"))
+                    ? userBulkService.importCsv(reader)
+                    : userBulkService.importNdjson(reader);
+            // A broken upload still reports what was imported before it broke
+            return result.error() != null ? ResponseEntity.badRequest().body(result) : ResponseEntity.ok(result);
+        } catch (IOException | RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse("Import failed: " + e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportUsers(@RequestParam(defaultValue = "ndjson") String format) {
+        if (format.equals("csv")) {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.valueOf("text/csv"))
+                    .body(userBulkService::exportCsv);
         }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(userBulkService::exportNdjson);
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<?> getUserById(@PathVariable Long id) {
+    public ResponseEntity<?> getUserById(@PathVariable Long id,
+                                         @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        // Answer unchanged polls from the ETag cache without loading the user
+        String cachedETag = userETagCache.getById(id);
+        if (cachedETag != null && etagMatches(ifNoneMatch, cachedETag)) {
+            return notModified(cachedETag);
+        }
+        
         Optional<User> userOpt = userService.findById(id);
         
         if (userOpt.isPresent()) {
             User user = userOpt.get();
-            Map<String, Object> response = Map.of(
-                "id", user.getId(),
-                "name", user.getName(),
-                "email", user.getEmail(),
-                "authProvider", user.getAuthProvider()
-            );
-            return ResponseEntity.ok(response);
+            String etag = userETagCache.put(user);
+            if (etagMatches(ifNoneMatch, etag)) {
+                return notModified(etag);
+            }
+            return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(UserResponse.from(user));
         } else {
             return ResponseEntity.notFound().build();
         }
     }
     
     @GetMapping("/email/{email}")
-    public ResponseEntity<?> getUserByEmail(@PathVariable String email) {
+    public ResponseEntity<?> getUserByEmail(@PathVariable String email,
+                                            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String cachedETag = userETagCache.getByEmail(email);
+        if (cachedETag != null && etagMatches(ifNoneMatch, cachedETag)) {
+            return notModified(cachedETag);
+        }
+        
         Optional<User> userOpt = userService.findByEmail(email);
         
         if (userOpt.isPresent()) {
             User user = userOpt.get();
-            Map<String, Object> response = Map.of(
-                "id", user.getId(),
-                "name", user.getName(),
-                "email", user.getEmail(),
-                "authProvider", user.getAuthProvider()
-            );
-            return ResponseEntity.ok(response);
+            String etag = userETagCache.put(user);
+            if (etagMatches(ifNoneMatch, etag)) {
+                return notModified(etag);
+            }
+            return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(UserResponse.from(user));
         } else {
             return ResponseEntity.notFound().build();
         }
@@ -124,7 +210,8 @@ public class UserController {
         try {
             // Extract token from Authorization header
             if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-                return ResponseEntity.status(401).body(Map.of("error", "Missing or invalid Authorization header"));
+                auditService.publish(AuditEvent.Type.TOKEN_REJECTED, null, "Missing or invalid Authorization header");
+                return ResponseEntity.status(401).body(MISSING_AUTHORIZATION);
             }
             
             String token = authHeader.substring(7);
@@ -139,33 +226,58 @@ public class UserController {
             String expirationInfo = jwtUtil.getTokenExpirationInfo(tokenClaims);
             
             // Create protected profile response
-            Map<String, Object> profile = new HashMap<>();
-            profile.put("message", "Access granted to protected resource!");
-            profile.put("timestamp", System.currentTimeMillis());
-            profile.put("token_validation", "VALID");
-            profile.put("token_expiration", expirationInfo);
-            profile.put("user_info", Map.of(
-                "name", name != null ? name : "Unknown",
-                "email", email != null ? email : "Unknown",
-                "subject_id", sub != null ? sub : "Unknown"
-            ));
-            profile.put("token_claims", Map.of(
-                "issuer", tokenClaims.get("iss"),
-                "audience", tokenClaims.get("aud"),
-                "issued_at", tokenClaims.get("iat"),
-                "expires_at", tokenClaims.get("exp"),
-                "token_type", tokenClaims.get("typ")
-            ));
-            profile.put("status", "authenticated");
+            ProfileResponse profile = new ProfileResponse(
+                "Access granted to protected resource!",
+                System.currentTimeMillis(),
+                "VALID",
+                expirationInfo,
+                new ProfileResponse.UserInfo(
+                    name != null ? name : "Unknown",
+                    email != null ? email : "Unknown",
+                    sub != null ? sub : "Unknown"
+                ),
+                new ProfileResponse.TokenClaims(
+                    tokenClaims.get("iss"),
+                    tokenClaims.get("aud"),
+                    tokenClaims.get("iat"),
+                    tokenClaims.get("exp"),
+                    tokenClaims.get("typ")
+                ),
+                "authenticated"
+            );
             
             return ResponseEntity.ok(profile);
             
         } catch (Exception e) {
-            return ResponseEntity.status(401).body(Map.of(
-                "error", "Token validation failed",
-                "details", e.getMessage(),
-                "status", "unauthorized"
+            auditService.publish(AuditEvent.Type.TOKEN_REJECTED, null, e.getMessage());
+            return ResponseEntity.status(401).body(new ErrorResponse(
+                "Token validation failed",
+                e.getMessage(),
+                "unauthorized"
             ));
         }
     }
-} 
\ No newline at end of file
+    
+    /**
+     * Weak comparison as required for If-None-Match (RFC 9110 13.1.2)
+     */
+    private static boolean etagMatches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals("*") || candidate.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static ResponseEntity<?> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CacheControl.noCache()).build();
+    }
+}
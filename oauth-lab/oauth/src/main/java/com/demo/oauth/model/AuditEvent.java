@@ -0,0 +1,99 @@
+package com.demo.oauth.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Authentication audit trail entry. Rows are written in batches by AuditService;
+ * the mapping defines the audit_events table and its lookup indexes.
+ */
+@Entity
+@Table(name = "audit_events", indexes = {
+    // Brute-force and session fixation checks look up recent events per account or per client address
+    @Index(name = "idx_audit_events_principal_occurred_at", columnList = "principal, occurred_at"),
+    @Index(name = "idx_audit_events_remote_address_occurred_at", columnList = "remote_address, occurred_at")
+})
+public class AuditEvent {
+
+    public enum Type {
+        LOGIN_SUCCESS,
+        LOGIN_FAILURE,
+        OAUTH_USER_PROVISIONED,
+        TOKEN_REJECTED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false)
+    private Type type;
+
+    @Column(name = "principal")
+    private String principal;
+
+    @Column(name = "remote_address")
+    private String remoteAddress;
+
+    @Column(name = "session_id")
+    private String sessionId;
+
+    @Column(name = "detail", length = 1000)
+    private String detail;
+
+    @Column(name = "occurred_at", nullable = false)
+    private LocalDateTime occurredAt;
+
+    // Default constructor
+    public AuditEvent() {
+    }
+
+    public AuditEvent(Type type, String principal, String remoteAddress, String sessionId, String detail) {
+        this.type = type;
+        this.principal = principal;
+        this.remoteAddress = remoteAddress;
+        this.sessionId = sessionId;
+        this.detail = detail;
+        this.occurredAt = LocalDateTime.now();
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getPrincipal() {
+        return principal;
+    }
+
+    public String getRemoteAddress() {
+        return remoteAddress;
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public String getDetail() {
+        return detail;
+    }
+
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+
+    @Override
+    public String toString() {
+        return "AuditEvent{" +
+                "type=" + type +
+                ", principal='" + principal + '\'' +
+                ", remoteAddress='" + remoteAddress + '\'' +
+                ", occurredAt=" + occurredAt +
+                '}';
+    }
+}
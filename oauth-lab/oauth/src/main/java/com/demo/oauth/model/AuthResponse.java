@@ -0,0 +1,15 @@
+package com.demo.oauth.model;
+
+/**
+ * Body returned by register and login
+ */
+public record AuthResponse(String message, Account user) {
+
+    // Only id, name and email, as these bodies have always carried
+    public record Account(Long id, String name, String email) {
+    }
+
+    public static AuthResponse of(String message, User user) {
+        return new AuthResponse(message, new Account(user.getId(), user.getName(), user.getEmail()));
+    }
+}
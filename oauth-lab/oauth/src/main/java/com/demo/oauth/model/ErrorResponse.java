@@ -0,0 +1,11 @@
+package com.demo.oauth.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ErrorResponse(String error, String details, String status) {
+
+    public ErrorResponse(String error) {
+        this(error, null, null);
+    }
+}
@@ -0,0 +1,4 @@
+package com.demo.oauth.model;
+
+public record OAuthCallbackResponse(TokenResponse tokens, UserResponse user) {
+}
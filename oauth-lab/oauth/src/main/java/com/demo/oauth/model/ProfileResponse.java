@@ -0,0 +1,30 @@
+package com.demo.oauth.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Body of the protected profile endpoint, built from validated token claims
+ */
+public record ProfileResponse(
+        String message,
+        long timestamp,
+        @JsonProperty("token_validation") String tokenValidation,
+        @JsonProperty("token_expiration") String tokenExpiration,
+        @JsonProperty("user_info") UserInfo userInfo,
+        @JsonProperty("token_claims") TokenClaims tokenClaims,
+        String status) {
+
+    public record UserInfo(
+            String name,
+            String email,
+            @JsonProperty("subject_id") String subjectId) {
+    }
+
+    public record TokenClaims(
+            Object issuer,
+            Object audience,
+            @JsonProperty("issued_at") Object issuedAt,
+            @JsonProperty("expires_at") Object expiresAt,
+            @JsonProperty("token_type") Object tokenType) {
+    }
+}
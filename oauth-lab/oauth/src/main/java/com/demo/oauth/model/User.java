@@ -4,7 +4,11 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+    // Keyset pagination for user search always walks (created_at, id)
+    @Index(name = "idx_users_created_at_id", columnList = "created_at, id"),
+    @Index(name = "idx_users_auth_provider_created_at_id", columnList = "auth_provider, created_at, id")
+})
 public class User {
     
     @Id
@@ -20,7 +24,7 @@ public class User {
     @Column(nullable = true)
     private String password;
     
-    @Column(name = "created_at")
+    @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
     
     @Column(name = "updated_at")
@@ -0,0 +1,9 @@
+package com.demo.oauth.model;
+
+import java.util.List;
+
+/**
+ * One page of search results; nextCursor is null on the last page
+ */
+public record UserPage(List<UserSummary> items, String nextCursor) {
+}
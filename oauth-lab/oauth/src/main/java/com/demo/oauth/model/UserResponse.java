@@ -0,0 +1,11 @@
+package com.demo.oauth.model;
+
+/**
+ * Public view of a user, without password or external id
+ */
+public record UserResponse(Long id, String name, String email, String authProvider) {
+
+    public static UserResponse from(User user) {
+        return new UserResponse(user.getId(), user.getName(), user.getEmail(), user.getAuthProvider());
+    }
+}
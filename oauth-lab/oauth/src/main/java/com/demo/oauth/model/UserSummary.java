@@ -0,0 +1,9 @@
+package com.demo.oauth.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only projection of a user for list and search results
+ */
+public record UserSummary(Long id, String name, String email, String authProvider, LocalDateTime createdAt) {
+}
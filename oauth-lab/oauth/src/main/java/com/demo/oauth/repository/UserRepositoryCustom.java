@@ -0,0 +1,27 @@
+package com.demo.oauth.repository;
+
+import com.demo.oauth.model.UserSummary;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface UserRepositoryCustom {
+
+    /**
+     * Seeks past (afterCreatedAt, afterId) in (created_at, id) order instead of
+     * using OFFSET, so every page costs the same. Null filters are left out of the query.
+     * Only rows with a created_at are returned; see searchUsersWithoutCreatedAt.
+     *
+     * emailPrefix is applied as a filter while walking the (created_at, id) index, so a
+     * very selective prefix may read many index entries to fill one page.
+     */
+    List<UserSummary> searchUsers(String authProvider, String emailPrefix,
+                                  LocalDateTime createdFrom, LocalDateTime createdTo,
+                                  LocalDateTime afterCreatedAt, Long afterId, int limit);
+
+    /**
+     * Rows created before created_at was required, in id order after afterId (null for
+     * the first). Kept separate so the main seek stays a plain index range scan.
+     */
+    List<UserSummary> searchUsersWithoutCreatedAt(String authProvider, String emailPrefix, Long afterId, int limit);
+}
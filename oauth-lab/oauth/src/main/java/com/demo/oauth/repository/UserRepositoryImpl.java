@@ -0,0 +1,90 @@
+package com.demo.oauth.repository;
+
+import com.demo.oauth.model.UserSummary;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+class UserRepositoryImpl implements UserRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<UserSummary> searchUsers(String authProvider, String emailPrefix,
+                                         LocalDateTime createdFrom, LocalDateTime createdTo,
+                                         LocalDateTime afterCreatedAt, Long afterId, int limit) {
+        StringBuilder jpql = select(authProvider, emailPrefix).append(" and u.createdAt is not null");
+        if (createdFrom != null) {
+            jpql.append(" and u.createdAt >= :createdFrom");
+        }
+        if (createdTo != null) {
+            jpql.append(" and u.createdAt < :createdTo");
+        }
+        if (afterCreatedAt != null && afterId != null) {
+            // Row-value comparison lets PostgreSQL seek straight into the (created_at, id) index
+            jpql.append(" and (u.createdAt, u.id) > (:afterCreatedAt, :afterId)");
+        }
+        jpql.append(" order by u.createdAt, u.id");
+
+        TypedQuery<UserSummary> query = query(jpql, authProvider, emailPrefix);
+        if (createdFrom != null) {
+            query.setParameter("createdFrom", createdFrom);
+        }
+        if (createdTo != null) {
+            query.setParameter("createdTo", createdTo);
+        }
+        if (afterCreatedAt != null && afterId != null) {
+            query.setParameter("afterCreatedAt", afterCreatedAt);
+            query.setParameter("afterId", afterId);
+        }
+        return query.setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public List<UserSummary> searchUsersWithoutCreatedAt(String authProvider, String emailPrefix, Long afterId, int limit) {
+        // Also served by the (created_at, id) index: created_at is null, then id > :afterId
+        StringBuilder jpql = select(authProvider, emailPrefix).append(" and u.createdAt is null");
+        if (afterId != null) {
+            jpql.append(" and u.id > :afterId");
+        }
+        jpql.append(" order by u.id");
+
+        TypedQuery<UserSummary> query = query(jpql, authProvider, emailPrefix);
+        if (afterId != null) {
+            query.setParameter("afterId", afterId);
+        }
+        return query.setMaxResults(limit).getResultList();
+    }
+
+    private static StringBuilder select(String authProvider, String emailPrefix) {
+        StringBuilder jpql = new StringBuilder(
+                "select new com.demo.oauth.model.UserSummary(u.id, u.name, u.email, u.authProvider, u.createdAt) "
+                + "from User u where 1 = 1");
+        if (authProvider != null) {
+            jpql.append(" and u.authProvider = :authProvider");
+        }
+        if (emailPrefix != null) {
+            jpql.append(" and u.email like :emailPrefix escape '\\'");
+        }
+        return jpql;
+    }
+
+    private TypedQuery<UserSummary> query(StringBuilder jpql, String authProvider, String emailPrefix) {
+        TypedQuery<UserSummary> query = entityManager.createQuery(jpql.toString(), UserSummary.class);
+        if (authProvider != null) {
+            query.setParameter("authProvider", authProvider);
+        }
+        if (emailPrefix != null) {
+            query.setParameter("emailPrefix", escapeLike(emailPrefix) + "%");
+        }
+        return query;
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
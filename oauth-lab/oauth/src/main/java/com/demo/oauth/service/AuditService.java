@@ -0,0 +1,189 @@
+package com.demo.oauth.service;
+
+import com.demo.oauth.model.AuditEvent;
+import com.demo.oauth.util.RingBuffer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Records authentication events without putting a database write on the request path.
+ *
+ * Request threads publish into a lock-free ring buffer; one background thread drains
+ * it and batch-inserts into audit_events. When the buffer is full, events are dropped
+ * (app.audit.overflow-policy=drop) or the publisher waits up to
+ * app.audit.block-timeout-millis for space before dropping (block).
+ */
+@Service
+public class AuditService {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditService.class);
+
+    private static final String INSERT_SQL =
+            "INSERT INTO audit_events (event_type, principal, remote_address, session_id, detail, occurred_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final int MAX_DETAIL_LENGTH = 1000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Value("${app.audit.buffer-size:8192}")
+    private int bufferSize;
+
+    @Value("${app.audit.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.audit.flush-interval-millis:200}")
+    private long flushIntervalMillis;
+
+    @Value("${app.audit.overflow-policy:drop}")
+    private String overflowPolicy;
+
+    @Value("${app.audit.block-timeout-millis:5}")
+    private long blockTimeoutMillis;
+
+    private RingBuffer<AuditEvent> buffer;
+    private Thread consumer;
+    private volatile boolean running;
+
+    private final AtomicLong lagMillis = new AtomicLong();
+    private Counter published;
+    private Counter dropped;
+    private Counter written;
+    private Counter failed;
+
+    @PostConstruct
+    public void start() {
+        buffer = new RingBuffer<>(bufferSize);
+
+        MeterRegistry registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        published = registry.counter("audit.events.published");
+        dropped = registry.counter("audit.events.dropped");
+        written = registry.counter("audit.events.written");
+        failed = registry.counter("audit.events.failed");
+        Gauge.builder("audit.queue.depth", buffer, RingBuffer::size).register(registry);
+        // Time from the oldest event in the last written batch occurring to it being committed
+        Gauge.builder("audit.lag", lagMillis, AtomicLong::get).baseUnit("milliseconds").register(registry);
+
+        running = true;
+        consumer = new Thread(this::consume, "audit-writer");
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(consumer);
+        consumer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    /**
+     * Queues an event, capturing client address and session from the current request if there is one
+     */
+    public void publish(AuditEvent.Type type, String principal, String detail) {
+        String remoteAddress = null;
+        String sessionId = null;
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servletAttributes) {
+            HttpServletRequest request = servletAttributes.getRequest();
+            remoteAddress = request.getRemoteAddr();
+            HttpSession session = request.getSession(false);
+            sessionId = session != null ? session.getId() : null;
+        }
+        if (detail != null && detail.length() > MAX_DETAIL_LENGTH) {
+            detail = detail.substring(0, MAX_DETAIL_LENGTH);
+        }
+
+        AuditEvent event = new AuditEvent(type, principal, remoteAddress, sessionId, detail);
+        if (buffer.offer(event) || (overflowPolicy.equals("block") && offerWithin(event, blockTimeoutMillis))) {
+            published.increment();
+        } else {
+            dropped.increment();
+        }
+    }
+
+    private boolean offerWithin(AuditEvent event, long timeoutMillis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (System.nanoTime() < deadline) {
+            LockSupport.parkNanos(50_000);
+            if (buffer.offer(event)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Writes a batch once it is full or its oldest event has waited flush-interval-millis
+     */
+    private void consume() {
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        long flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        long batchStart = 0;
+        while (running || buffer.size() > 0 || !batch.isEmpty()) {
+            AuditEvent event = buffer.poll();
+            if (event != null) {
+                if (batch.isEmpty()) {
+                    batchStart = System.nanoTime();
+                }
+                batch.add(event);
+            }
+
+            boolean due = !batch.isEmpty()
+                    && (batch.size() >= batchSize || System.nanoTime() - batchStart >= flushIntervalNanos || !running);
+            if (due) {
+                write(batch);
+                batch.clear();
+            } else if (event == null) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(5));
+            }
+        }
+    }
+
+    private void write(List<AuditEvent> batch) {
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (statement, event) -> {
+                statement.setString(1, event.getType().name());
+                statement.setString(2, event.getPrincipal());
+                statement.setString(3, event.getRemoteAddress());
+                statement.setString(4, event.getSessionId());
+                statement.setString(5, event.getDetail());
+                statement.setTimestamp(6, Timestamp.valueOf(event.getOccurredAt()));
+            });
+            written.increment(batch.size());
+            lagMillis.set(Duration.between(batch.get(0).getOccurredAt(), LocalDateTime.now()).toMillis());
+        } catch (RuntimeException e) {
+            failed.increment(batch.size());
+            log.error("Failed to write {} audit events", batch.size(), e);
+        }
+    }
+}
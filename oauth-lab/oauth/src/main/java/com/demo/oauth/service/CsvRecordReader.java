@@ -0,0 +1,100 @@
+package com.demo.oauth.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads CSV one record at a time. Quoted fields may contain commas, doubled
+ * quotes and line breaks; outside quotes a record ends at \n, \r\n or \r.
+ * Reads characters rather than lines so line breaks inside quotes are kept as written.
+ */
+class CsvRecordReader {
+
+    private static final int NONE = -2;
+
+    private final Reader reader;
+    private int pushedBack = NONE;
+    private boolean afterCarriageReturn;
+    private long line = 1;
+    private long recordLine;
+    private boolean unterminated;
+
+    CsvRecordReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * @return the record's fields, trimmed, or null at end of input
+     */
+    List<String> next() throws IOException {
+        long start = line;
+        int c = read();
+        if (c == -1) {
+            return null;
+        }
+        recordLine = start;
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (c != -1) {
+            if (quoted) {
+                if (c == '"') {
+                    int following = read();
+                    if (following != '"') {
+                        quoted = false;
+                        c = following;
+                        continue;
+                    }
+                }
+                field.append((char) c);
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c == '\r') {
+                int following = read();
+                if (following != '\n') {
+                    pushedBack = following;
+                }
+                break;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+        unterminated = quoted;
+        fields.add(field.toString().trim());
+        return fields;
+    }
+
+    // First line of the record last returned by next()
+    long recordLine() {
+        return recordLine;
+    }
+
+    // Whether the last record hit end of input inside a quoted field
+    boolean unterminated() {
+        return unterminated;
+    }
+
+    // Counts \n, \r\n and \r as one line break each; a pushed back character was counted when first read
+    private int read() throws IOException {
+        if (pushedBack != NONE) {
+            int c = pushedBack;
+            pushedBack = NONE;
+            return c;
+        }
+        int c = reader.read();
+        if (c == '\r' || (c == '\n' && !afterCarriageReturn)) {
+            line++;
+        }
+        afterCarriageReturn = c == '\r';
+        return c;
+    }
+}
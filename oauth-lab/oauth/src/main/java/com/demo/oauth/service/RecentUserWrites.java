@@ -0,0 +1,82 @@
+package com.demo.oauth.service;
+
+import com.demo.oauth.config.ReplicaProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers users this instance wrote recently so reads of them go to the primary
+ * instead of a replica that may not have the change yet.
+ *
+ * Replica lag is only measured every health-check-interval, so a replica still in
+ * rotation can be up to max-lag plus one interval behind; the window covers both.
+ */
+@Component
+public class RecentUserWrites {
+
+    // Expired entries are only swept once the map grows past this
+    private static final int SWEEP_THRESHOLD = 10_000;
+
+    @Autowired
+    private ReplicaProperties replicaProperties;
+
+    private final Map<String, Long> expiresAt = new ConcurrentHashMap<>();
+
+    /**
+     * Marks the user as written. Inside a transaction the window starts again at
+     * commit, since that is when replicas begin to catch up.
+     */
+    public void mark(Long id, String... emails) {
+        record(id, emails);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    record(id, emails);
+                }
+            });
+        }
+    }
+
+    public boolean isRecentId(Long id) {
+        return isRecent("id:" + id);
+    }
+
+    public boolean isRecentEmail(String email) {
+        return isRecent("email:" + email);
+    }
+
+    private void record(Long id, String... emails) {
+        long expiry = System.currentTimeMillis() + replicaProperties.getMaxLag().toMillis()
+                + replicaProperties.getHealthCheckInterval().toMillis();
+        if (id != null) {
+            expiresAt.put("id:" + id, expiry);
+        }
+        for (String email : emails) {
+            if (email != null) {
+                expiresAt.put("email:" + email, expiry);
+            }
+        }
+        if (expiresAt.size() > SWEEP_THRESHOLD) {
+            long now = System.currentTimeMillis();
+            expiresAt.values().removeIf(entryExpiry -> entryExpiry < now);
+        }
+    }
+
+    private boolean isRecent(String key) {
+        Long expiry = expiresAt.get(key);
+        if (expiry == null) {
+            return false;
+        }
+        if (expiry < System.currentTimeMillis()) {
+            expiresAt.remove(key, expiry);
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,317 @@
+package com.demo.oauth.service;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Bulk user import and export that bypasses JPA so memory use stays flat
+ * regardless of how many rows go through
+ */
+@Service
+public class UserBulkService {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO users (name, email, password, auth_provider, created_at, updated_at) "
+            + "VALUES (?, ?, ?, 'local', ?, ?) ON CONFLICT (email) DO NOTHING";
+
+    private static final String EXPORT_SQL =
+            "SELECT id, name, email, auth_provider, external_id, created_at, updated_at FROM users ORDER BY id";
+
+    // Imports only accept hashes PasswordEncoder can verify, never plain text
+    private static final Pattern BCRYPT_HASH = Pattern.compile("^\\$2[aby]?\\$\\d{2}\\$[./A-Za-z0-9]{53}$");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.bulk.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.bulk.fetch-size:1000}")
+    private int fetchSize;
+
+    @Value("${app.bulk.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    public record ImportRow(long line, String name, String email, String passwordHash) {}
+
+    public record RowError(long line, String error) {}
+
+    /**
+     * error is set when reading the upload failed part way; the counts then cover
+     * the rows read before the failure, which have been committed
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record ImportResult(long imported, long failed, List<RowError> errors, String error) {}
+
+    public ImportResult importNdjson(BufferedReader reader) {
+        ImportState state = new ImportState();
+        String line;
+        long lineNumber = 0;
+        try {
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    JsonNode node = objectMapper.readTree(line);
+                    state.accept(new ImportRow(lineNumber, text(node, "name"), text(node, "email"), text(node, "password_hash")));
+                } catch (JsonProcessingException e) {
+                    state.fail(lineNumber, "Malformed JSON: " + e.getOriginalMessage());
+                }
+            }
+        } catch (IOException e) {
+            return state.abort(lineNumber, e);
+        }
+        return state.finish();
+    }
+
+    /**
+     * Expects a header record of name,email,password_hash in any order. Quoted
+     * fields may contain commas, doubled quotes and line breaks, quoted the same
+     * way exportCsv writes them. exportCsv leaves out password hashes, so its
+     * output is not itself an import file.
+     */
+    public ImportResult importCsv(BufferedReader reader) {
+        ImportState state = new ImportState();
+        CsvRecordReader records = new CsvRecordReader(reader);
+        try {
+            List<String> columns = records.next();
+            if (columns == null) {
+                return state.finish();
+            }
+            int nameIndex = columns.indexOf("name");
+            int emailIndex = columns.indexOf("email");
+            int passwordIndex = columns.indexOf("password_hash");
+            if (nameIndex < 0 || emailIndex < 0 || passwordIndex < 0) {
+                throw new RuntimeException("CSV header must contain name, email and password_hash");
+            }
+
+            List<String> fields;
+            while ((fields = records.next()) != null) {
+                long lineNumber = records.recordLine();
+                if (fields.size() == 1 && fields.get(0).isEmpty()) {
+                    continue;
+                }
+                if (records.unterminated()) {
+                    state.fail(lineNumber, "Unterminated quoted field");
+                    continue;
+                }
+                if (fields.size() != columns.size()) {
+                    state.fail(lineNumber, "Expected " + columns.size() + " fields, got " + fields.size());
+                    continue;
+                }
+                state.accept(new ImportRow(lineNumber, fields.get(nameIndex), fields.get(emailIndex), fields.get(passwordIndex)));
+            }
+        } catch (IOException e) {
+            return state.abort(records.recordLine(), e);
+        }
+        return state.finish();
+    }
+
+    /**
+     * Streams every user as one JSON object per line straight off a server-side cursor
+     */
+    public void exportNdjson(OutputStream out) {
+        exportRows(out, false);
+    }
+
+    public void exportCsv(OutputStream out) {
+        exportRows(out, true);
+    }
+
+    private void exportRows(OutputStream out, boolean csv) {
+        // PostgreSQL only honours the fetch size inside a transaction
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        transaction.executeWithoutResult(status -> {
+            try (Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+                 JsonGenerator generator = objectMapper.getFactory().createGenerator(writer).setRootValueSeparator(null)) {
+                if (csv) {
+                    writer.write("id,name,email,auth_provider,external_id,created_at,updated_at\n");
+                }
+                jdbcTemplate.query(connection -> {
+                    var statement = connection.prepareStatement(EXPORT_SQL);
+                    statement.setFetchSize(fetchSize);
+                    return statement;
+                }, resultSet -> {
+                    try {
+                        if (csv) {
+                            writer.write(resultSet.getLong("id") + ","
+                                    + csvField(resultSet.getString("name")) + ","
+                                    + csvField(resultSet.getString("email")) + ","
+                                    + csvField(resultSet.getString("auth_provider")) + ","
+                                    + csvField(resultSet.getString("external_id")) + ","
+                                    + csvField(timestamp(resultSet, "created_at")) + ","
+                                    + csvField(timestamp(resultSet, "updated_at")) + "\n");
+                        } else {
+                            generator.writeStartObject();
+                            generator.writeNumberField("id", resultSet.getLong("id"));
+                            generator.writeStringField("name", resultSet.getString("name"));
+                            generator.writeStringField("email", resultSet.getString("email"));
+                            generator.writeStringField("auth_provider", resultSet.getString("auth_provider"));
+                            generator.writeStringField("external_id", resultSet.getString("external_id"));
+                            generator.writeStringField("created_at", timestamp(resultSet, "created_at"));
+                            generator.writeStringField("updated_at", timestamp(resultSet, "updated_at"));
+                            generator.writeEndObject();
+                            generator.writeRaw('\n');
+                        }
+                    } catch (IOException e) {
+                        throw new RuntimeException("Failed to write export row: " + e.getMessage(), e);
+                    }
+                });
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to stream export: " + e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * Validates rows, buffers them up to the batch size and keeps a bounded error list
+     */
+    private class ImportState {
+
+        private final List<ImportRow> batch = new ArrayList<>(batchSize);
+        private final List<RowError> errors = new ArrayList<>();
+        private long imported;
+        private long failed;
+
+        void accept(ImportRow row) {
+            String error = validate(row);
+            if (error != null) {
+                fail(row.line(), error);
+                return;
+            }
+            batch.add(row);
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void fail(long line, String error) {
+            failed++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new RowError(line, error));
+            }
+        }
+
+        ImportResult finish() {
+            flush();
+            return new ImportResult(imported, failed, errors, null);
+        }
+
+        // Keeps the rows already read so a broken upload can be resumed after the last good line
+        ImportResult abort(long line, IOException cause) {
+            flush();
+            return new ImportResult(imported, failed, errors, "Upload failed after line " + line + ": " + cause.getMessage());
+        }
+
+        private void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                int[] counts = insertBatch(batch);
+                for (int i = 0; i < counts.length; i++) {
+                    if (counts[i] == 0) {
+                        fail(batch.get(i).line(), "User with this email already exists");
+                    } else {
+                        imported++;
+                    }
+                }
+            } catch (DataAccessException e) {
+                // One bad row rolls back its whole batch, so replay it row by row to isolate it
+                for (ImportRow row : batch) {
+                    try {
+                        if (insertBatch(List.of(row))[0] == 0) {
+                            fail(row.line(), "User with this email already exists");
+                        } else {
+                            imported++;
+                        }
+                    } catch (DataAccessException rowError) {
+                        fail(row.line(), rowError.getMostSpecificCause().getMessage());
+                    }
+                }
+            }
+            batch.clear();
+        }
+    }
+
+    private int[] insertBatch(List<ImportRow> rows) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        return transaction.execute(status -> {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            return jdbcTemplate.batchUpdate(INSERT_SQL, rows, rows.size(), (statement, row) -> {
+                statement.setString(1, row.name());
+                statement.setString(2, row.email());
+                statement.setString(3, row.passwordHash());
+                statement.setTimestamp(4, now);
+                statement.setTimestamp(5, now);
+            })[0];
+        });
+    }
+
+    private static String validate(ImportRow row) {
+        if (row.name() == null || row.name().isBlank()) {
+            return "Name is required";
+        }
+        if (row.email() == null || !row.email().contains("@")) {
+            return "A valid email is required";
+        }
+        if (row.passwordHash() == null || !BCRYPT_HASH.matcher(row.passwordHash()).matches()) {
+            return "password_hash must be a BCrypt hash";
+        }
+        return null;
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    private static String timestamp(ResultSet resultSet, String column) throws SQLException {
+        Timestamp value = resultSet.getTimestamp(column);
+        return value == null ? null : value.toLocalDateTime().toString();
+    }
+
+    // Quotes anything CsvRecordReader would otherwise split on, including a bare \r
+    static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+}
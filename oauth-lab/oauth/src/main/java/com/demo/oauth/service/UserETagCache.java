@@ -0,0 +1,114 @@
+package com.demo.oauth.service;
+
+import com.demo.oauth.model.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers the current ETag of recently served users so conditional GETs can
+ * be answered with 304 without touching the database.
+ *
+ * Entries are evicted when this instance changes the user and otherwise expire
+ * after app.etag.ttl-millis, which bounds how long a change made by another instance can go unseen.
+ */
+@Component
+public class UserETagCache {
+
+    private record Entry(String etag, long expiresAt) {}
+
+    @Value("${app.etag.ttl-millis:5000}")
+    private long ttlMillis;
+
+    @Value("${app.etag.max-entries:10000}")
+    private int maxEntries;
+
+    // Lookups run on every conditional GET, so they must not serialize on a lock
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Strong ETag derived from the user's id and last modification time
+     */
+    public static String etagFor(User user) {
+        LocalDateTime updatedAt = user.getUpdatedAt();
+        // Microseconds, the precision PostgreSQL stores, so reloaded entities produce the same tag
+        long updated = updatedAt == null ? 0 : updatedAt.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + updatedAt.getNano() / 1000;
+        return "\"" + user.getId() + "-" + Long.toHexString(updated) + "\"";
+    }
+
+    public String getById(Long id) {
+        return get("id:" + id);
+    }
+
+    public String getByEmail(String email) {
+        return get("email:" + email);
+    }
+
+    public String put(User user) {
+        String etag = etagFor(user);
+        Entry entry = new Entry(etag, System.currentTimeMillis() + ttlMillis);
+        entries.put("id:" + user.getId(), entry);
+        entries.put("email:" + user.getEmail(), entry);
+        if (entries.size() > maxEntries) {
+            trim();
+        }
+        return etag;
+    }
+
+    /**
+     * Inside a transaction the entries are dropped once it commits. Evicting earlier
+     * lets a concurrent request cache the old row again before the change is visible.
+     */
+    public void evict(Long id, String... emails) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remove(id, emails);
+                }
+            });
+        } else {
+            remove(id, emails);
+        }
+    }
+
+    private void remove(Long id, String... emails) {
+        entries.remove("id:" + id);
+        for (String email : emails) {
+            entries.remove("email:" + email);
+        }
+    }
+
+    private String get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt() < System.currentTimeMillis()) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.etag();
+    }
+
+    /**
+     * Drops expired entries, then arbitrary ones if the cache is still over its bound.
+     * Losing a live entry only costs one database lookup.
+     */
+    private void trim() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.expiresAt() < now);
+        Iterator<String> keys = entries.keySet().iterator();
+        while (entries.size() > maxEntries && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+}
@@ -1,11 +1,21 @@
 package com.demo.oauth.service;
 
 import com.demo.oauth.model.User;
+import com.demo.oauth.model.UserPage;
+import com.demo.oauth.model.UserSummary;
 import com.demo.oauth.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
 import java.util.Optional;
 
 @Service
@@ -17,17 +27,34 @@ public class UserService {
     @Autowired
     private PasswordEncoder passwordEncoder;
     
+    @Autowired
+    private UserETagCache userETagCache;
+    
+    @Autowired
+    private RecentUserWrites recentUserWrites;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    // Read-write so the existsByEmail check and the insert both hit the primary
+    @Transactional
     public User registerUser(String name, String email, String password) {
         if (userRepository.existsByEmail(email)) {
             throw new RuntimeException("User with this email already exists");
         }
         
-        User user = new User(name, email, passwordEncoder.encode(password));
-        return userRepository.save(user);
+        User user = userRepository.save(new User(name, email, passwordEncoder.encode(password)));
+        recentUserWrites.mark(user.getId(), email);
+        return user;
     }
     
+    /**
+     * Loads the user from the primary, so a password just changed or an account just
+     * registered is never checked against a lagging replica. The BCrypt check runs
+     * after the transaction ends so it does not hold a pooled connection.
+     */
     public Optional<User> authenticateUser(String email, String password) {
-        Optional<User> userOpt = userRepository.findByEmail(email);
+        Optional<User> userOpt = primaryTransaction().execute(status -> userRepository.findByEmail(email));
         
         if (userOpt.isPresent()) {
             User user = userOpt.get();
@@ -39,25 +66,89 @@ public class UserService {
         return Optional.empty();
     }
     
+    @Transactional
     public User createOrUpdateOAuthUser(String name, String email, String externalId) {
         Optional<User> existingUser = userRepository.findByExternalId(externalId);
         
         if (existingUser.isPresent()) {
             User user = existingUser.get();
+            // Takes effect when this transaction commits
+            userETagCache.evict(user.getId(), user.getEmail(), email);
+            recentUserWrites.mark(user.getId(), user.getEmail(), email);
             user.setName(name);
             user.setEmail(email);
             return userRepository.save(user);
         } else {
-            User newUser = new User(name, email, externalId, true);
-            return userRepository.save(newUser);
+            User newUser = userRepository.save(new User(name, email, externalId, true));
+            recentUserWrites.mark(newUser.getId(), email);
+            return newUser;
         }
     }
     
+    // Users written here within the replica lag bound are read from the primary
     public Optional<User> findByEmail(String email) {
-        return userRepository.findByEmail(email);
+        TransactionTemplate transaction = recentUserWrites.isRecentEmail(email) ? primaryTransaction() : replicaTransaction();
+        return transaction.execute(status -> userRepository.findByEmail(email));
     }
     
     public Optional<User> findById(Long id) {
-        return userRepository.findById(id);
+        TransactionTemplate transaction = recentUserWrites.isRecentId(id) ? primaryTransaction() : replicaTransaction();
+        return transaction.execute(status -> userRepository.findById(id));
+    }
+    
+    /**
+     * Returns the page after the given cursor (null for the first page)
+     */
+    @Transactional(readOnly = true)
+    public UserPage searchUsers(String authProvider, String emailPrefix,
+                                LocalDateTime createdFrom, LocalDateTime createdTo,
+                                String cursor, int limit) {
+        LocalDateTime afterCreatedAt = null;
+        Long afterId = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            try {
+                String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = decoded.lastIndexOf('|');
+                // An empty timestamp marks a page that ended among rows without created_at
+                afterCreatedAt = separator == 0 ? null : LocalDateTime.parse(decoded.substring(0, separator));
+                afterId = Long.parseLong(decoded.substring(separator + 1));
+            } catch (Exception e) {
+                throw new RuntimeException("Invalid cursor");
+            }
+        }
+        
+        // Fetch one extra row to learn whether another page exists
+        boolean inNullTail = afterId != null && afterCreatedAt == null;
+        List<UserSummary> rows = new ArrayList<>();
+        if (!inNullTail) {
+            rows.addAll(userRepository.searchUsers(authProvider, emailPrefix, createdFrom, createdTo,
+                    afterCreatedAt, afterId, limit + 1));
+        }
+        // Rows without created_at sort after all others and never match a created_at range
+        if (rows.size() <= limit && createdFrom == null && createdTo == null) {
+            rows.addAll(userRepository.searchUsersWithoutCreatedAt(authProvider, emailPrefix,
+                    inNullTail ? afterId : null, limit + 1 - rows.size()));
+        }
+        if (rows.size() <= limit) {
+            return new UserPage(List.copyOf(rows), null);
+        }
+        
+        List<UserSummary> items = rows.subList(0, limit);
+        UserSummary last = items.get(limit - 1);
+        String nextCursor = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(((last.createdAt() == null ? "" : last.createdAt().toString()) + "|" + last.id())
+                        .getBytes(StandardCharsets.UTF_8));
+        return new UserPage(List.copyOf(items), nextCursor);
+    }
+    
+    // Read-write transactions are routed to the primary, read-only ones to a replica
+    private TransactionTemplate primaryTransaction() {
+        return new TransactionTemplate(transactionManager);
+    }
+    
+    private TransactionTemplate replicaTransaction() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        return transaction;
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,238 @@
+package com.demo.oauth.service;
+
+import com.demo.oauth.model.AuthResponse;
+import com.demo.oauth.model.ErrorResponse;
+import com.demo.oauth.model.ProfileResponse;
+import com.demo.oauth.model.UserPage;
+import com.demo.oauth.model.UserResponse;
+import com.demo.oauth.model.UserSummary;
+import com.demo.oauth.repository.UserRepository;
+import com.demo.oauth.util.JwtUtil;
+import com.demo.oauth.util.RealmPolicy;
+import com.demo.oauth.util.RealmPolicyRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives the hot request paths through the JIT before the instance takes traffic.
+ *
+ * Spring Boot only reports readiness (/actuator/health/readiness) as UP after all
+ * ApplicationRunners have returned, so the load balancer holds traffic back until
+ * this finishes. Each phase is timed under the app.warmup metric.
+ */
+@Service
+public class WarmupService implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(WarmupService.class);
+
+    private static final String WARMUP_EMAIL = "warmup@warmup.invalid";
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private RealmPolicyRegistry realmPolicyRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    // Read at run time rather than as a bean condition, which AOT processing would fix at build time
+    @Value("${app.warmup.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.warmup.iterations:5000}")
+    private int iterations;
+
+    @Value("${app.warmup.query-iterations:50}")
+    private int queryIterations;
+
+    // Enough checks for BCrypt to be compiled, capped so slow hosts are not held up
+    @Value("${app.warmup.bcrypt-rounds:20}")
+    private int bcryptRounds;
+
+    @Value("${app.warmup.bcrypt-budget-millis:3000}")
+    private long bcryptBudgetMillis;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        phase("jwt", this::warmJwt);
+        phase("jwt-signature", this::warmJwtSignature);
+        phase("jackson", this::warmJackson);
+        phase("repository", this::warmRepository);
+        phase("bcrypt", this::warmBcrypt);
+        log.info("Warm-up finished in {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private void phase(String name, Runnable work) {
+        long start = System.nanoTime();
+        try {
+            work.run();
+        } catch (RuntimeException e) {
+            // A failed warm-up must not keep the instance out of service
+            log.warn("Warm-up phase {} failed: {}", name, e.getMessage(), e);
+        }
+        long elapsed = System.nanoTime() - start;
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            Timer.builder("app.warmup").tag("phase", name).register(registry).record(elapsed, TimeUnit.NANOSECONDS);
+        }
+        log.info("Warm-up phase {} took {} ms", name, TimeUnit.NANOSECONDS.toMillis(elapsed));
+    }
+
+    /**
+     * Unsigned tokens with valid claims for every realm. They pass claim checks and
+     * fail at the signature step where one is configured, which also prefetches the realm's keys.
+     */
+    private void warmJwt() {
+        long exp = System.currentTimeMillis() / 1000 + 300;
+        List<String> tokens = realmPolicyRegistry.getPolicies().stream()
+                .map(policy -> syntheticToken(policy, exp))
+                .toList();
+        for (int i = 0; i < iterations; i++) {
+            for (String token : tokens) {
+                try {
+                    Map<String, Object> claims = jwtUtil.validateAndDecodeToken(token);
+                    jwtUtil.extractEmail(claims);
+                    jwtUtil.extractName(claims);
+                    jwtUtil.extractSub(claims);
+                    jwtUtil.getTokenExpirationInfo(claims);
+                } catch (RuntimeException e) {
+                    // Expected for realms that verify signatures
+                }
+            }
+        }
+    }
+
+    /**
+     * The synthetic tokens above never reach RSA verification, since their kid is not
+     * in any JWK set. Sign and verify with a throwaway key pair instead so jjwt's
+     * signature path and the JDK's RSA code are compiled too.
+     */
+    private void warmJwtSignature() {
+        KeyPair keyPair = Jwts.SIG.RS256.keyPair().build();
+        String token = Jwts.builder()
+                .subject("warmup")
+                .claim("email", WARMUP_EMAIL)
+                .signWith(keyPair.getPrivate(), Jwts.SIG.RS256)
+                .compact();
+        JwtParser parser = Jwts.parser().verifyWith(keyPair.getPublic()).build();
+        for (int i = 0; i < iterations; i++) {
+            parser.parseSignedClaims(token);
+        }
+    }
+
+    private String syntheticToken(RealmPolicy policy, long exp) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String header = "{\"alg\":\"RS256\",\"typ\":\"JWT\",\"kid\":\"warmup\"}";
+        String payload = "{\"iss\":\"" + policy.getIssuer() + "\",\"aud\":\"" + policy.getAnyAudience() + "\","
+                + "\"exp\":" + exp + ",\"iat\":" + (exp - 300) + ",\"sub\":\"warmup\","
+                + "\"email\":\"" + WARMUP_EMAIL + "\",\"name\":\"Warm Up\",\"typ\":\"Bearer\"}";
+        return encoder.encodeToString(header.getBytes(StandardCharsets.UTF_8)) + "."
+                + encoder.encodeToString(payload.getBytes(StandardCharsets.UTF_8)) + ".d2FybXVw";
+    }
+
+    private void warmJackson() {
+        UserResponse user = new UserResponse(1L, "Warm Up", WARMUP_EMAIL, "local");
+        List<Object> samples = List.of(
+                new AuthResponse("Login successful", new AuthResponse.Account(1L, "Warm Up", WARMUP_EMAIL)),
+                user,
+                new ErrorResponse("Invalid email or password"),
+                new ErrorResponse("Token validation failed", "warm-up", "unauthorized"),
+                new UserPage(List.of(new UserSummary(1L, "Warm Up", WARMUP_EMAIL, "local", LocalDateTime.now())), "cursor"),
+                new ProfileResponse("Access granted to protected resource!", System.currentTimeMillis(), "VALID",
+                        "5 minutes, 0 seconds remaining",
+                        new ProfileResponse.UserInfo("Warm Up", WARMUP_EMAIL, "warmup"),
+                        new ProfileResponse.TokenClaims("issuer", List.of("account"), 0, 0, "Bearer"),
+                        "authenticated"));
+        try {
+            for (int i = 0; i < iterations; i++) {
+                for (Object sample : samples) {
+                    objectMapper.writeValueAsBytes(sample);
+                }
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("Serialization failed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Runs every UserRepository query so Hibernate caches the query plans. Read-only
+     * transactions warm the replica pools and read-write ones the primary pool, which
+     * serves login, registration and reads of just-written users.
+     *
+     * pgjdbc prepares statements server-side per connection once one has run a query
+     * prepareThreshold times, so this only warms the few connections these sequential
+     * iterations happen to borrow; the rest prepare on first use.
+     */
+    private void warmRepository() {
+        TransactionTemplate replicaTransaction = new TransactionTemplate(transactionManager);
+        replicaTransaction.setReadOnly(true);
+        TransactionTemplate primaryTransaction = new TransactionTemplate(transactionManager);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < queryIterations; i++) {
+            replicaTransaction.executeWithoutResult(status -> runQueries(now));
+            primaryTransaction.executeWithoutResult(status -> {
+                runQueries(now);
+                // Nothing is written, but never let warm-up commit anything
+                status.setRollbackOnly();
+            });
+        }
+    }
+
+    private void runQueries(LocalDateTime now) {
+        userRepository.findById(-1L);
+        userRepository.findByEmail(WARMUP_EMAIL);
+        userRepository.findByExternalId("warmup");
+        userRepository.existsByEmail(WARMUP_EMAIL);
+        userRepository.findByEmailAndAuthProvider(WARMUP_EMAIL, "local");
+        userRepository.searchUsers(null, null, null, null, null, null, 1);
+        userRepository.searchUsers("local", "warmup", now.minusDays(1), now, now, -1L, 1);
+        userRepository.searchUsersWithoutCreatedAt("local", "warmup", -1L, 1);
+    }
+
+    private void warmBcrypt() {
+        String hash = passwordEncoder.encode("warm-up-password");
+        long deadline = System.currentTimeMillis() + bcryptBudgetMillis;
+        for (int i = 0; i < bcryptRounds && System.currentTimeMillis() < deadline; i++) {
+            passwordEncoder.matches("warm-up-password", hash);
+        }
+    }
+}
@@ -1,22 +1,29 @@
 package com.demo.oauth.util;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 
-import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Base64;
+import java.util.List;
 import java.util.Map;
 
 @Component
 public class JwtUtil {
     
-    @Value("${keycloak.auth-server-url}")
-    private String authServerUrl;
+    private static final TypeReference<Map<String, Object>> CLAIMS_TYPE = new TypeReference<>() {};
     
     private final RestTemplate restTemplate = new RestTemplate();
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    
+    @Autowired
+    private RealmPolicyRegistry realmPolicyRegistry;
+    
+    // Shared application ObjectMapper, so claim parsing reuses its serializer caches
+    @Autowired
+    private ObjectMapper objectMapper;
     
     /**
      * Validates and decodes a JWT token
@@ -25,6 +32,18 @@ public class JwtUtil {
      * @throws RuntimeException if token is invalid
      */
     public Map<String, Object> validateAndDecodeToken(String token) {
+        return validate(token, false);
+    }
+    
+    /**
+     * Like validateAndDecodeToken, but also rejects tokens from realms without a JWK set,
+     * whose signatures would otherwise go unchecked. Use this wherever a token grants access.
+     */
+    public Map<String, Object> validateAndDecodeSignedToken(String token) {
+        return validate(token, true);
+    }
+    
+    private Map<String, Object> validate(String token, boolean requireSignature) {
         try {
             // Step 1: Basic JWT format validation
             validateJwtFormat(token);
@@ -32,8 +51,14 @@ public class JwtUtil {
             // Step 2: Decode the token to get claims
             Map<String, Object> claims = decodeToken(token);
             
-            // Step 3: Validate token claims
-            validateTokenClaims(claims);
+            // Step 3: Validate token claims against the issuing realm's policy
+            RealmPolicy policy = validateTokenClaims(claims);
+            if (requireSignature && !policy.verifiesSignatures()) {
+                throw new RuntimeException("Realm " + policy.getIssuer() + " has no JWK set, so the token signature cannot be verified");
+            }
+            
+            // Step 4: Verify the signature if the realm has a JWK set configured
+            policy.checkSignature(token);
             
             return claims;
             
@@ -76,8 +101,7 @@ public class JwtUtil {
                 payload += "=";
             }
             
-            String decodedPayload = new String(Base64.getUrlDecoder().decode(payload), StandardCharsets.UTF_8);
-            return objectMapper.readValue(decodedPayload, Map.class);
+            return objectMapper.readValue(Base64.getUrlDecoder().decode(payload), CLAIMS_TYPE);
             
         } catch (Exception e) {
             throw new RuntimeException("Failed to decode JWT token: " + e.getMessage(), e);
@@ -85,9 +109,10 @@ public class JwtUtil {
     }
     
     /**
-     * Validates token claims (expiration, issuer, audience, etc.)
+     * Validates token claims (expiration, issuer, audience, etc.) and returns
+     * the policy of the realm that issued the token
      */
-    private void validateTokenClaims(Map<String, Object> claims) {
+    private RealmPolicy validateTokenClaims(Map<String, Object> claims) {
         // Check if token has required claims
         if (!claims.containsKey("exp")) {
             throw new RuntimeException("Token missing expiration claim");
@@ -101,47 +126,31 @@ public class JwtUtil {
             throw new RuntimeException("Token missing audience claim");
         }
         
+        // Validate issuer (selects the realm whose rules apply to this token)
+        Object issuerClaim = claims.get("iss");
+        RealmPolicy policy = realmPolicyRegistry.forIssuer(issuerClaim instanceof String issuer ? issuer : null);
+        long clockSkew = policy.getClockSkewSeconds();
+        
         // Validate expiration
         long expirationTime = Long.parseLong(claims.get("exp").toString());
         long currentTime = System.currentTimeMillis() / 1000; // Convert to seconds
         
-        if (currentTime > expirationTime) {
+        if (currentTime > expirationTime + clockSkew) {
             throw new RuntimeException("Token has expired. Expired at: " + expirationTime + ", Current time: " + currentTime);
         }
         
-        // Validate issuer (should match Keycloak realm)
-        String issuer = (String) claims.get("iss");
-        String expectedIssuer = authServerUrl.replace("/protocol/openid-connect/token", "");
-        if (!issuer.equals(expectedIssuer)) {
-            throw new RuntimeException("Invalid token issuer. Expected: " + expectedIssuer + ", Got: " + issuer);
-        }
-        
-        // Validate audience (should match client ID or be "account" for Keycloak)
-        Object audienceObj = claims.get("aud");
-        String audience = null;
-        
-        if (audienceObj instanceof String) {
-            audience = (String) audienceObj;
-        } else if (audienceObj instanceof java.util.List) {
-            // Handle case where audience is an array
-            java.util.List<?> audienceList = (java.util.List<?>) audienceObj;
-            if (!audienceList.isEmpty()) {
-                audience = audienceList.get(0).toString();
-            }
-        }
-        
-        // Accept either "Spring-Client" or "account" as valid audiences
-        if (audience == null || (!audience.equals("Spring-Client") && !audience.equals("account"))) {
-            throw new RuntimeException("Invalid token audience. Expected: Spring-Client or account, Got: " + audience);
-        }
+        // Validate audience against the realm's allowed audiences
+        policy.checkAudience(claims.get("aud"));
         
         // Check if token is not issued in the future
         if (claims.containsKey("iat")) {
             long issuedAt = Long.parseLong(claims.get("iat").toString());
-            if (issuedAt > currentTime) {
+            if (issuedAt > currentTime + clockSkew) {
                 throw new RuntimeException("Token issued in the future. Issued at: " + issuedAt + ", Current time: " + currentTime);
             }
         }
+        
+        return policy;
     }
     
     public String extractEmail(Map<String, Object> claims) {
@@ -164,6 +173,26 @@ public class JwtUtil {
         return (String) claims.get("sub");
     }
     
+    /**
+     * Realm roles from Keycloak's realm_access claim
+     */
+    public List<String> extractRealmRoles(Map<String, Object> claims) {
+        if (claims.get("realm_access") instanceof Map<?, ?> realmAccess && realmAccess.get("roles") instanceof List<?> roles) {
+            return roles.stream().filter(String.class::isInstance).map(String.class::cast).toList();
+        }
+        return List.of();
+    }
+    
+    /**
+     * Scopes from the space-separated scope claim
+     */
+    public List<String> extractScopes(Map<String, Object> claims) {
+        if (claims.get("scope") instanceof String scope && !scope.isBlank()) {
+            return Arrays.stream(scope.trim().split("\\s+")).toList();
+        }
+        return List.of();
+    }
+    
     /**
      * Gets token expiration time in a readable format
      */
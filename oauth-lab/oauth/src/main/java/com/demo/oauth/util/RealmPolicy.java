@@ -0,0 +1,145 @@
+package com.demo.oauth.util;
+
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.security.Jwk;
+import io.jsonwebtoken.security.JwkSet;
+import io.jsonwebtoken.security.Jwks;
+import org.springframework.web.client.RestTemplate;
+
+import java.security.Key;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Validation rules for one Keycloak realm, compiled once at startup
+ */
+public class RealmPolicy {
+
+    // Lower bound between JWKS refreshes triggered by unknown key ids
+    private static final long JWKS_REFRESH_INTERVAL_MILLIS = 30_000;
+
+    // Retry delay after a failed fetch, so a Keycloak outage does not lock out new keys for the full interval
+    private static final long JWKS_RETRY_BACKOFF_MILLIS = 1_000;
+
+    private final String issuer;
+    private final Set<String> audiences;
+    private final String audienceDescription;
+    private final long clockSkewSeconds;
+    private final JwtParser signatureParser;
+
+    public RealmPolicy(String issuer, List<String> audiences, long clockSkewSeconds,
+                       String jwksUri, RestTemplate restTemplate) {
+        this.issuer = issuer;
+        this.audiences = Set.copyOf(audiences);
+        this.audienceDescription = String.join(" or ", audiences);
+        this.clockSkewSeconds = clockSkewSeconds;
+        this.signatureParser = jwksUri == null || jwksUri.isEmpty() ? null : Jwts.parser()
+                .keyLocator(new JwksKeyLocator(jwksUri, restTemplate))
+                .clockSkewSeconds(clockSkewSeconds)
+                .build();
+    }
+
+    public String getIssuer() {
+        return issuer;
+    }
+
+    public String getAnyAudience() {
+        return audiences.iterator().next();
+    }
+
+    public long getClockSkewSeconds() {
+        return clockSkewSeconds;
+    }
+
+    /**
+     * A list-valued aud is accepted if any of its entries is an allowed audience
+     */
+    public void checkAudience(Object audienceObj) {
+        if (audienceObj instanceof String audience) {
+            if (audiences.contains(audience)) {
+                return;
+            }
+        } else if (audienceObj instanceof List<?> audienceList) {
+            for (Object audience : audienceList) {
+                if (audience != null && audiences.contains(audience.toString())) {
+                    return;
+                }
+            }
+        }
+        throw new RuntimeException("Invalid token audience. Expected: " + audienceDescription + ", Got: " + audienceObj);
+    }
+
+    public boolean verifiesSignatures() {
+        return signatureParser != null;
+    }
+
+    /**
+     * Verifies the token signature against the realm's JWK set, if one is configured
+     */
+    public void checkSignature(String token) {
+        if (signatureParser != null) {
+            signatureParser.parseSignedClaims(token);
+        }
+    }
+
+    /**
+     * Caches the realm's signing keys by kid and refetches the JWK set when an
+     * unknown kid shows up, e.g. after a Keycloak key rotation
+     */
+    private static class JwksKeyLocator extends LocatorAdapter<Key> {
+
+        private final String jwksUri;
+        private final RestTemplate restTemplate;
+        private volatile Map<String, Key> keys = Map.of();
+        private volatile long nextRefresh;
+
+        JwksKeyLocator(String jwksUri, RestTemplate restTemplate) {
+            this.jwksUri = jwksUri;
+            this.restTemplate = restTemplate;
+        }
+
+        @Override
+        protected Key locate(JwsHeader header) {
+            // The cached key map rejects null lookups, and a kid-less token cannot pick a key anyway
+            if (header.getKeyId() == null) {
+                throw new RuntimeException("Token header has no key id");
+            }
+            Key key = keys.get(header.getKeyId());
+            if (key == null) {
+                refresh();
+                key = keys.get(header.getKeyId());
+            }
+            if (key == null) {
+                throw new RuntimeException("Unknown signing key: " + header.getKeyId());
+            }
+            return key;
+        }
+
+        private synchronized void refresh() {
+            long now = System.currentTimeMillis();
+            if (now < nextRefresh) {
+                return;
+            }
+            try {
+                String json = restTemplate.getForObject(jwksUri, String.class);
+                JwkSet jwkSet = Jwks.setParser().build().parse(json);
+                Map<String, Key> refreshed = new HashMap<>();
+                for (Jwk<?> jwk : jwkSet.getKeys()) {
+                    if (jwk.getId() != null) {
+                        refreshed.put(jwk.getId(), jwk.toKey());
+                    }
+                }
+                keys = Map.copyOf(refreshed);
+                nextRefresh = now + JWKS_REFRESH_INTERVAL_MILLIS;
+            } catch (RuntimeException e) {
+                nextRefresh = now + JWKS_RETRY_BACKOFF_MILLIS;
+                throw e;
+            }
+        }
+    }
+}
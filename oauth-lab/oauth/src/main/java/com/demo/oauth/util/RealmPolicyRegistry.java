@@ -0,0 +1,86 @@
+package com.demo.oauth.util;
+
+import com.demo.oauth.config.KeycloakRealmProperties;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps each accepted issuer to its realm's policy. Built once at startup so
+ * JwtUtil only does a single map lookup per token.
+ */
+@Component
+public class RealmPolicyRegistry {
+
+    @Autowired
+    private KeycloakRealmProperties properties;
+
+    @Value("${keycloak.auth-server-url}")
+    private String authServerUrl;
+
+    @Value("${keycloak.client-id}")
+    private String clientId;
+
+    // JWK set of the fallback realm; defaults to Keycloak's certs endpoint for auth-server-url
+    @Value("${keycloak.jwks-uri:}")
+    private String jwksUri;
+
+    // JWKS fetches run while holding the realm's key lock, so they must not hang
+    @Value("${keycloak.jwks-connect-timeout-millis:2000}")
+    private long jwksConnectTimeoutMillis;
+
+    @Value("${keycloak.jwks-read-timeout-millis:3000}")
+    private long jwksReadTimeoutMillis;
+
+    private Map<String, RealmPolicy> policiesByIssuer = Map.of();
+
+    @PostConstruct
+    public void compile() {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(Duration.ofMillis(jwksConnectTimeoutMillis));
+        requestFactory.setReadTimeout(Duration.ofMillis(jwksReadTimeoutMillis));
+        RestTemplate restTemplate = new RestTemplate(requestFactory);
+
+        Map<String, RealmPolicy> policies = new HashMap<>();
+        for (KeycloakRealmProperties.Realm realm : properties.getRealms()) {
+            if (realm.getIssuer() == null || realm.getAudiences().isEmpty()) {
+                throw new IllegalStateException("keycloak.realms entries need an issuer and at least one audience");
+            }
+            RealmPolicy policy = new RealmPolicy(realm.getIssuer(), realm.getAudiences(),
+                    realm.getClockSkew().toSeconds(), realm.getJwksUri(), restTemplate);
+            if (policies.put(policy.getIssuer(), policy) != null) {
+                throw new IllegalStateException("Duplicate issuer in keycloak.realms: " + policy.getIssuer());
+            }
+        }
+
+        // Without explicit realms, fall back to the single realm at keycloak.auth-server-url
+        if (policies.isEmpty()) {
+            String issuer = authServerUrl.replace("/protocol/openid-connect/token", "");
+            String certsUri = jwksUri == null || jwksUri.isEmpty() ? issuer + "/protocol/openid-connect/certs" : jwksUri;
+            policies.put(issuer, new RealmPolicy(issuer, List.of(clientId, "account"), 0, certsUri, restTemplate));
+        }
+
+        policiesByIssuer = Map.copyOf(policies);
+    }
+
+    public Collection<RealmPolicy> getPolicies() {
+        return policiesByIssuer.values();
+    }
+
+    public RealmPolicy forIssuer(String issuer) {
+        RealmPolicy policy = issuer == null ? null : policiesByIssuer.get(issuer);
+        if (policy == null) {
+            throw new RuntimeException("Invalid token issuer. Expected one of: " + policiesByIssuer.keySet() + ", Got: " + issuer);
+        }
+        return policy;
+    }
+}
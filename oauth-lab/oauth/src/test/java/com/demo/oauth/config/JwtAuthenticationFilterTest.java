@@ -0,0 +1,180 @@
+package com.demo.oauth.config;
+
+import com.demo.oauth.model.AuditEvent;
+import com.demo.oauth.service.AuditService;
+import com.demo.oauth.util.JwtUtil;
+import com.demo.oauth.util.RealmPolicyRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigInteger;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.interfaces.RSAPublicKey;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class JwtAuthenticationFilterTest {
+
+    private static final String SIGNED_ISSUER = "http://localhost:7000/realms/signed";
+    private static final String UNSIGNED_ISSUER = "http://localhost:7000/realms/unsigned";
+    private static final String KEY_ID = "test-key";
+
+    private final KeyPair keyPair = Jwts.SIG.RS256.keyPair().build();
+    private final AuditService auditService = mock(AuditService.class);
+    private HttpServer jwksServer;
+    private JwtAuthenticationFilter filter;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // Serves the realm's JWK set the way Keycloak's certs endpoint does
+        byte[] jwks = jwkSet((RSAPublicKey) keyPair.getPublic()).getBytes(StandardCharsets.UTF_8);
+        jwksServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        jwksServer.createContext("/certs", exchange -> {
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, jwks.length);
+            exchange.getResponseBody().write(jwks);
+            exchange.close();
+        });
+        jwksServer.start();
+
+        KeycloakRealmProperties properties = new KeycloakRealmProperties();
+        properties.setRealms(List.of(
+                realm(SIGNED_ISSUER, "http://127.0.0.1:" + jwksServer.getAddress().getPort() + "/certs"),
+                realm(UNSIGNED_ISSUER, null)));
+        RealmPolicyRegistry registry = new RealmPolicyRegistry();
+        ReflectionTestUtils.setField(registry, "properties", properties);
+        ReflectionTestUtils.setField(registry, "jwksConnectTimeoutMillis", 1000L);
+        ReflectionTestUtils.setField(registry, "jwksReadTimeoutMillis", 1000L);
+        registry.compile();
+
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "realmPolicyRegistry", registry);
+        ReflectionTestUtils.setField(jwtUtil, "objectMapper", new ObjectMapper());
+        filter = new JwtAuthenticationFilter(jwtUtil, auditService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        jwksServer.stop(0);
+    }
+
+    @Test
+    void signedTokenAuthenticatesWithRolesAndScopes() throws Exception {
+        String token = Jwts.builder()
+                .header().keyId(KEY_ID).and()
+                .issuer(SIGNED_ISSUER)
+                .claim("aud", "account")
+                .subject("admin-1")
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + 300_000))
+                .claim("realm_access", Map.of("roles", List.of("user-admin")))
+                .claim("scope", "openid users.admin")
+                .signWith(keyPair.getPrivate(), Jwts.SIG.RS256)
+                .compact();
+
+        Authentication authentication = filter(token);
+
+        assertNotNull(authentication);
+        assertEquals("admin-1", authentication.getName());
+        assertEquals(List.of("ROLE_user-admin", "SCOPE_openid", "SCOPE_users.admin"),
+                authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+        verifyNoInteractions(auditService);
+    }
+
+    @Test
+    void forgedSignatureIsRejectedAndAudited() throws Exception {
+        String claims = "{\"iss\":\"" + SIGNED_ISSUER + "\",\"aud\":\"account\",\"sub\":\"attacker\","
+                + "\"exp\":" + (System.currentTimeMillis() / 1000 + 300) + ","
+                + "\"realm_access\":{\"roles\":[\"user-admin\"]}}";
+
+        assertNull(filter(unsignedToken("{\"alg\":\"RS256\",\"kid\":\"" + KEY_ID + "\"}", claims)));
+        assertNull(filter(unsignedToken("{\"alg\":\"none\"}", claims)));
+        verify(auditService, times(2))
+                .publish(eq(AuditEvent.Type.TOKEN_REJECTED), isNull(), anyString());
+    }
+
+    @Test
+    void realmWithoutJwkSetGrantsNothing() throws Exception {
+        String claims = "{\"iss\":\"" + UNSIGNED_ISSUER + "\",\"aud\":\"account\",\"sub\":\"someone\","
+                + "\"exp\":" + (System.currentTimeMillis() / 1000 + 300) + "}";
+
+        assertNull(filter(unsignedToken("{\"alg\":\"none\"}", claims)));
+        verify(auditService).publish(eq(AuditEvent.Type.TOKEN_REJECTED), isNull(), anyString());
+    }
+
+    @Test
+    void requestWithoutTokenPassesThroughUnauthenticated() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/users"), new MockHttpServletResponse(), chain);
+
+        assertNotNull(chain.getRequest());
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verifyNoInteractions(auditService);
+    }
+
+    private Authentication filter(String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users/export");
+        request.addHeader("Authorization", "Bearer " + token);
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        assertNotNull(chain.getRequest(), "the filter must always continue the chain");
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    private static KeycloakRealmProperties.Realm realm(String issuer, String jwksUri) {
+        KeycloakRealmProperties.Realm realm = new KeycloakRealmProperties.Realm();
+        realm.setIssuer(issuer);
+        realm.setAudiences(List.of("account"));
+        realm.setJwksUri(jwksUri);
+        return realm;
+    }
+
+    private static String unsignedToken(String header, String claims) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return encoder.encodeToString(header.getBytes(StandardCharsets.UTF_8)) + "."
+                + encoder.encodeToString(claims.getBytes(StandardCharsets.UTF_8)) + ".c2lnbmF0dXJl";
+    }
+
+    private static String jwkSet(RSAPublicKey key) {
+        return "{\"keys\":[{\"kty\":\"RSA\",\"kid\":\"" + KEY_ID + "\",\"use\":\"sig\",\"alg\":\"RS256\","
+                + "\"n\":\"" + unsigned(key.getModulus()) + "\",\"e\":\"" + unsigned(key.getPublicExponent()) + "\"}]}";
+    }
+
+    // JWK integers are unsigned big-endian, without the sign byte BigInteger may add
+    private static String unsigned(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        if (bytes[0] == 0 && bytes.length > 1) {
+            bytes = Arrays.copyOfRange(bytes, 1, bytes.length);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
@@ -0,0 +1,130 @@
+package com.demo.oauth.service;
+
+import com.demo.oauth.model.AuditEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class AuditServiceTest {
+
+    // Holds the writer thread inside its first batch so the buffer can be filled behind it
+    private final CountDownLatch writerEntered = new CountDownLatch(1);
+    private final CountDownLatch releaseWriter = new CountDownLatch(1);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private AuditService auditService;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        releaseWriter.countDown();
+        if (auditService != null) {
+            auditService.stop();
+        }
+    }
+
+    @Test
+    void dropPolicyDropsWhenBufferIsFull() throws InterruptedException {
+        auditService = start("drop", 5);
+        fillBehindBlockedWriter();
+
+        auditService.publish(AuditEvent.Type.LOGIN_FAILURE, "overflow@example.com", null);
+
+        assertEquals(3, count("audit.events.published"));
+        assertEquals(1, count("audit.events.dropped"));
+
+        releaseWriter.countDown();
+        auditService.stop();
+        assertEquals(3, count("audit.events.written"));
+    }
+
+    @Test
+    void blockPolicyWaitsForSpace() throws Exception {
+        auditService = start("block", 10_000);
+        fillBehindBlockedWriter();
+
+        CompletableFuture<Void> publisher = CompletableFuture.runAsync(() ->
+                auditService.publish(AuditEvent.Type.LOGIN_FAILURE, "overflow@example.com", null));
+        Thread.sleep(100);
+        assertFalse(publisher.isDone(), "publish should wait while the buffer is full");
+
+        releaseWriter.countDown();
+        publisher.get(5, TimeUnit.SECONDS);
+        assertEquals(4, count("audit.events.published"));
+        assertEquals(0, count("audit.events.dropped"));
+
+        auditService.stop();
+        assertEquals(4, count("audit.events.written"));
+    }
+
+    @Test
+    void blockPolicyDropsAfterTimeout() throws InterruptedException {
+        auditService = start("block", 50);
+        fillBehindBlockedWriter();
+
+        long start = System.nanoTime();
+        auditService.publish(AuditEvent.Type.LOGIN_FAILURE, "overflow@example.com", null);
+        long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(waitedMillis >= 50, "publish returned after " + waitedMillis + " ms");
+        assertEquals(3, count("audit.events.published"));
+        assertEquals(1, count("audit.events.dropped"));
+    }
+
+    private AuditService start(String overflowPolicy, long blockTimeoutMillis) {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        doAnswer(invocation -> {
+            writerEntered.countDown();
+            releaseWriter.await();
+            return new int[][] {{1}};
+        }).when(jdbcTemplate).batchUpdate(anyString(), anyCollection(), anyInt(), any());
+
+        AuditService service = new AuditService();
+        ReflectionTestUtils.setField(service, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(service, "meterRegistry",
+                new StaticListableBeanFactory(Map.of("meterRegistry", registry)).getBeanProvider(MeterRegistry.class));
+        ReflectionTestUtils.setField(service, "bufferSize", 2);
+        ReflectionTestUtils.setField(service, "batchSize", 1);
+        ReflectionTestUtils.setField(service, "flushIntervalMillis", 1L);
+        ReflectionTestUtils.setField(service, "overflowPolicy", overflowPolicy);
+        ReflectionTestUtils.setField(service, "blockTimeoutMillis", blockTimeoutMillis);
+        service.start();
+        return service;
+    }
+
+    /**
+     * Leaves one event stuck in the writer and the two-slot buffer full
+     */
+    private void fillBehindBlockedWriter() throws InterruptedException {
+        auditService.publish(AuditEvent.Type.LOGIN_SUCCESS, "first@example.com", null);
+        assertTrue(writerEntered.await(5, TimeUnit.SECONDS));
+        auditService.publish(AuditEvent.Type.LOGIN_SUCCESS, "second@example.com", null);
+        auditService.publish(AuditEvent.Type.LOGIN_SUCCESS, "third@example.com", null);
+        assertEquals(2, queueDepth());
+    }
+
+    private double queueDepth() {
+        return registry.get("audit.queue.depth").gauge().value();
+    }
+
+    private double count(String counter) {
+        return registry.get(counter).counter().count();
+    }
+}
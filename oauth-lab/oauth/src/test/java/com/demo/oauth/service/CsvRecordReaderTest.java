@@ -0,0 +1,76 @@
+package com.demo.oauth.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CsvRecordReaderTest {
+
+    @Test
+    void splitsPlainRecordsOnAnyLineBreak() throws IOException {
+        CsvRecordReader reader = reader("a,b\nc,d\r\ne,f\rg,h");
+        assertEquals(List.of("a", "b"), reader.next());
+        assertEquals(List.of("c", "d"), reader.next());
+        assertEquals(List.of("e", "f"), reader.next());
+        assertEquals(List.of("g", "h"), reader.next());
+        assertEquals(4, reader.recordLine());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void quotedFieldsKeepCommasAndEscapedQuotes() throws IOException {
+        CsvRecordReader reader = reader("\"Doe, Jane\",\"say \"\"hi\"\"\",\"\"\n");
+        assertEquals(List.of("Doe, Jane", "say \"hi\"", ""), reader.next());
+        assertFalse(reader.unterminated());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void quotedFieldsSpanLinesAndKeepTheirLineBreaks() throws IOException {
+        CsvRecordReader reader = reader("name,email\n\"first\nsecond\r\nthird\rfourth\",a@example.com\nnext,b@example.com\n");
+        assertEquals(List.of("name", "email"), reader.next());
+        assertEquals(List.of("first\nsecond\r\nthird\rfourth", "a@example.com"), reader.next());
+        assertEquals(2, reader.recordLine());
+        assertEquals(List.of("next", "b@example.com"), reader.next());
+        assertEquals(6, reader.recordLine());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void blankLinesReadAsSingleEmptyField() throws IOException {
+        CsvRecordReader reader = reader("a\n\nb\n");
+        assertEquals(List.of("a"), reader.next());
+        assertEquals(List.of(""), reader.next());
+        assertEquals(List.of("b"), reader.next());
+        assertEquals(3, reader.recordLine());
+    }
+
+    @Test
+    void unterminatedQuoteAtEndOfInputIsFlagged() throws IOException {
+        CsvRecordReader reader = reader("ok,1\n\"open,2\nmore");
+        assertEquals(List.of("ok", "1"), reader.next());
+        assertFalse(reader.unterminated());
+        assertEquals(List.of("open,2\nmore"), reader.next());
+        assertTrue(reader.unterminated());
+        assertEquals(2, reader.recordLine());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void exportQuotingRoundTrips() throws IOException {
+        List<String> values = List.of("plain", "comma, inside", "quote \" inside", "line\nbreak", "carriage\rreturn", "");
+        String record = String.join(",", values.stream().map(UserBulkService::csvField).toList()) + "\n";
+        assertEquals(values, reader(record).next());
+    }
+
+    private static CsvRecordReader reader(String csv) {
+        return new CsvRecordReader(new StringReader(csv));
+    }
+}
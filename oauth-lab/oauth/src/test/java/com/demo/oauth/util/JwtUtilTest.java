@@ -0,0 +1,133 @@
+package com.demo.oauth.util;
+
+import com.demo.oauth.config.KeycloakRealmProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JwtUtilTest {
+
+    private static final String STRICT_ISSUER = "http://localhost:8080/realms/strict";
+    private static final String LENIENT_ISSUER = "http://localhost:8080/realms/lenient";
+
+    private JwtUtil jwtUtil;
+
+    @BeforeEach
+    void setUp() {
+        KeycloakRealmProperties properties = new KeycloakRealmProperties();
+        properties.setRealms(List.of(
+                realm(STRICT_ISSUER, Duration.ZERO),
+                realm(LENIENT_ISSUER, Duration.ofSeconds(60))));
+
+        RealmPolicyRegistry registry = new RealmPolicyRegistry();
+        ReflectionTestUtils.setField(registry, "properties", properties);
+        ReflectionTestUtils.setField(registry, "jwksConnectTimeoutMillis", 1000L);
+        ReflectionTestUtils.setField(registry, "jwksReadTimeoutMillis", 1000L);
+        registry.compile();
+
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "realmPolicyRegistry", registry);
+        ReflectionTestUtils.setField(jwtUtil, "objectMapper", new ObjectMapper());
+    }
+
+    @Test
+    void acceptsTokenFromConfiguredIssuer() {
+        long now = now();
+        Map<String, Object> claims = jwtUtil.validateAndDecodeToken(
+                token("\"iss\":\"" + STRICT_ISSUER + "\",\"aud\":\"account\",\"exp\":" + (now + 300) + ",\"iat\":" + now));
+        assertEquals(STRICT_ISSUER, claims.get("iss"));
+    }
+
+    @Test
+    void rejectsUnknownIssuer() {
+        long now = now();
+        RuntimeException e = assertThrows(RuntimeException.class, () -> jwtUtil.validateAndDecodeToken(
+                token("\"iss\":\"http://evil.example/realms/demo\",\"aud\":\"account\",\"exp\":" + (now + 300))));
+        assertTrue(e.getMessage().contains("Invalid token issuer"));
+    }
+
+    @Test
+    void rejectsNonStringIssuer() {
+        long now = now();
+        RuntimeException e = assertThrows(RuntimeException.class, () -> jwtUtil.validateAndDecodeToken(
+                token("\"iss\":[\"" + STRICT_ISSUER + "\"],\"aud\":\"account\",\"exp\":" + (now + 300))));
+        assertTrue(e.getMessage().contains("Got: null"));
+    }
+
+    @Test
+    void rejectsAudienceOfAnotherRealm() {
+        long now = now();
+        RuntimeException e = assertThrows(RuntimeException.class, () -> jwtUtil.validateAndDecodeToken(
+                token("\"iss\":\"" + STRICT_ISSUER + "\",\"aud\":\"lenient-client\",\"exp\":" + (now + 300))));
+        assertTrue(e.getMessage().contains("Invalid token audience"));
+    }
+
+    @Test
+    void expiryUsesTheIssuersClockSkew() {
+        long expired = now() - 30;
+        assertThrows(RuntimeException.class, () -> jwtUtil.validateAndDecodeToken(
+                token("\"iss\":\"" + STRICT_ISSUER + "\",\"aud\":\"account\",\"exp\":" + expired)));
+        assertDoesNotThrow(() -> jwtUtil.validateAndDecodeToken(
+                token("\"iss\":\"" + LENIENT_ISSUER + "\",\"aud\":\"lenient-client\",\"exp\":" + expired)));
+    }
+
+    @Test
+    void issuedAtUsesTheIssuersClockSkew() {
+        long now = now();
+        long future = now + 30;
+        assertThrows(RuntimeException.class, () -> jwtUtil.validateAndDecodeToken(
+                token("\"iss\":\"" + STRICT_ISSUER + "\",\"aud\":\"account\",\"exp\":" + (now + 300) + ",\"iat\":" + future)));
+        assertDoesNotThrow(() -> jwtUtil.validateAndDecodeToken(
+                token("\"iss\":\"" + LENIENT_ISSUER + "\",\"aud\":\"lenient-client\",\"exp\":" + (now + 300) + ",\"iat\":" + future)));
+    }
+
+    @Test
+    void signedValidationRejectsRealmWithoutJwkSet() {
+        long now = now();
+        String unsigned = token("\"iss\":\"" + STRICT_ISSUER + "\",\"aud\":\"account\",\"exp\":" + (now + 300));
+        assertDoesNotThrow(() -> jwtUtil.validateAndDecodeToken(unsigned));
+        RuntimeException e = assertThrows(RuntimeException.class, () -> jwtUtil.validateAndDecodeSignedToken(unsigned));
+        assertTrue(e.getMessage().contains("has no JWK set"));
+    }
+
+    @Test
+    void extractsRealmRolesAndScopes() {
+        Map<String, Object> claims = Map.of(
+                "realm_access", Map.of("roles", List.of("user-admin", "offline_access")),
+                "scope", "openid  email users.admin");
+        assertEquals(List.of("user-admin", "offline_access"), jwtUtil.extractRealmRoles(claims));
+        assertEquals(List.of("openid", "email", "users.admin"), jwtUtil.extractScopes(claims));
+        assertEquals(List.of(), jwtUtil.extractRealmRoles(Map.of()));
+        assertEquals(List.of(), jwtUtil.extractScopes(Map.of("scope", "")));
+    }
+
+    private static KeycloakRealmProperties.Realm realm(String issuer, Duration clockSkew) {
+        KeycloakRealmProperties.Realm realm = new KeycloakRealmProperties.Realm();
+        realm.setIssuer(issuer);
+        realm.setAudiences(List.of(issuer.equals(STRICT_ISSUER) ? "account" : "lenient-client"));
+        realm.setClockSkew(clockSkew);
+        return realm;
+    }
+
+    private static long now() {
+        return System.currentTimeMillis() / 1000;
+    }
+
+    private static String token(String claims) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return encoder.encodeToString("{\"alg\":\"none\"}".getBytes(StandardCharsets.UTF_8)) + "."
+                + encoder.encodeToString(("{" + claims + "}").getBytes(StandardCharsets.UTF_8)) + ".c2ln";
+    }
+}
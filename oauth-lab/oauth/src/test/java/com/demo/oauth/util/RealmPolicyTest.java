@@ -0,0 +1,49 @@
+package com.demo.oauth.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RealmPolicyTest {
+
+    private final RealmPolicy policy = new RealmPolicy("http://localhost:8080/realms/demo",
+            List.of("oauth-client", "account"), 0, null, null);
+
+    @Test
+    void acceptsAllowedStringAudience() {
+        assertDoesNotThrow(() -> policy.checkAudience("account"));
+    }
+
+    @Test
+    void acceptsListContainingAllowedAudience() {
+        assertDoesNotThrow(() -> policy.checkAudience(Arrays.asList("other", null, "oauth-client")));
+    }
+
+    @Test
+    void rejectsUnknownStringAudience() {
+        RuntimeException e = assertThrows(RuntimeException.class, () -> policy.checkAudience("other"));
+        assertTrue(e.getMessage().contains("oauth-client or account"));
+    }
+
+    @Test
+    void rejectsListWithoutAllowedAudience() {
+        assertThrows(RuntimeException.class, () -> policy.checkAudience(List.of("other", "another")));
+    }
+
+    @Test
+    void rejectsEmptyListAndNonStringAudience() {
+        assertThrows(RuntimeException.class, () -> policy.checkAudience(List.of()));
+        assertThrows(RuntimeException.class, () -> policy.checkAudience(42));
+        assertThrows(RuntimeException.class, () -> policy.checkAudience(null));
+    }
+
+    @Test
+    void withoutJwksUriSignatureIsNotChecked() {
+        assertDoesNotThrow(() -> policy.checkSignature("not.a.signature"));
+    }
+}
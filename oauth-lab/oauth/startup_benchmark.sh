@@ -0,0 +1,144 @@
+#!/bin/bash
+
+# Startup benchmark - compares the fast-startup build variants
+# For each variant: time until the first successful request and resident memory (RSS) at that point
+#
+# Build first:
+#   ./gradlew bootJar cdsArchive        (JVM variants)
+#   ./gradlew nativeCompile             (optional, needs GraalVM)
+# PostgreSQL from docker-compose.yml must be running, as for a normal start.
+# JAVA_HOME must point at the Java 21 toolchain Gradle used: a CDS archive only
+# maps into the exact JVM that created it.
+
+set -e  # Exit on any error
+
+# Colors for output
+RED='\033[0;31m'
+GREEN='\033[0;32m'
+YELLOW='\033[1;33m'
+BLUE='\033[0;34m'
+NC='\033[0m' # No Color
+
+print_step() {
+    echo -e "${BLUE}=== $1 ===${NC}"
+}
+
+print_success() {
+    echo -e "${GREEN}✅ $1${NC}"
+}
+
+print_warning() {
+    echo -e "${YELLOW}⚠️  $1${NC}"
+}
+
+print_error() {
+    echo -e "${RED}❌ $1${NC}"
+}
+
+# Configuration
+PORT=8081
+HEALTH_URL="http://localhost:$PORT/oauth/health"
+RUNS=${RUNS:-5}
+TIMEOUT_SECONDS=60
+JAR=$(ls build/libs/oauth-*-SNAPSHOT.jar 2>/dev/null | grep -v plain | head -n 1)
+CDS_DIR="build/cds"
+NATIVE_BINARY="build/native/nativeCompile/oauth"
+JAVA="${JAVA_HOME:?Set JAVA_HOME to the Java 21 toolchain used by Gradle}/bin/java"
+if [ ! -x "$JAVA" ]; then
+    print_error "No java executable at $JAVA"
+    exit 1
+fi
+RUN_LOG=$(mktemp)
+
+JAVA_VERSION=$("$JAVA" -XshowSettings:properties -version 2>&1 | awk -F' = ' '/java.specification.version/ {print $2}')
+if [ "$JAVA_VERSION" != "21" ]; then
+    print_warning "$JAVA is Java $JAVA_VERSION, the build toolchain is Java 21"
+fi
+
+now_ms() {
+    date +%s%3N
+}
+
+# Starts the given command, waits for the first 200 from the health endpoint,
+# prints "<milliseconds> <rss KB>" and stops the process
+measure() {
+    local start end rss pid
+    start=$(now_ms)
+    "$@" > "$RUN_LOG" 2>&1 &
+    pid=$!
+
+    while true; do
+        if curl -s -o /dev/null -w "%{http_code}" "$HEALTH_URL" 2>/dev/null | grep -q "200"; then
+            end=$(now_ms)
+            break
+        fi
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "failed"
+            return
+        fi
+        if [ $(( $(now_ms) - start )) -gt $(( TIMEOUT_SECONDS * 1000 )) ]; then
+            kill "$pid" 2>/dev/null
+            echo "timeout"
+            return
+        fi
+        sleep 0.02
+    done
+
+    rss=$(awk '/VmRSS/ {print $2}' "/proc/$pid/status")
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+    echo "$(( end - start )) $rss"
+}
+
+# Runs a variant RUNS times and prints the averages
+benchmark() {
+    local name=$1
+    shift
+    local total_ms=0 total_rss=0 count=0 result
+
+    print_step "$name"
+    for i in $(seq 1 "$RUNS"); do
+        result=$(measure "$@")
+        if [ "$result" = "failed" ] || [ "$result" = "timeout" ]; then
+            print_error "Run $i $result"
+            tail -n 5 "$RUN_LOG"
+            continue
+        fi
+        echo "Run $i: $(echo "$result" | awk '{print $1}') ms to first request, RSS $(echo "$result" | awk '{print $2}') KB"
+        total_ms=$(( total_ms + $(echo "$result" | awk '{print $1}') ))
+        total_rss=$(( total_rss + $(echo "$result" | awk '{print $2}') ))
+        count=$(( count + 1 ))
+    done
+
+    if [ "$count" -gt 0 ]; then
+        print_success "$name: avg $(( total_ms / count )) ms, avg RSS $(( total_rss / count / 1024 )) MB"
+        printf "%-10s %8d ms %8d MB\n" "$name" $(( total_ms / count )) $(( total_rss / count / 1024 )) >> "$SUMMARY"
+    fi
+}
+
+SUMMARY=$(mktemp)
+
+if [ -n "$JAR" ]; then
+    benchmark "jar" "$JAVA" -jar "$JAR"
+    benchmark "aot" "$JAVA" -Dspring.aot.enabled=true -jar "$JAR"
+else
+    print_warning "No boot jar found, run ./gradlew bootJar"
+fi
+
+if [ -f "$CDS_DIR/application.jsa" ]; then
+    # -Xshare:on makes the JVM exit instead of silently running without an unusable archive
+    benchmark "aot+cds" "$JAVA" -Xshare:on -Xlog:cds -XX:SharedArchiveFile="$CDS_DIR/application.jsa" -Dspring.aot.enabled=true \
+        -jar "$CDS_DIR/$(basename "$JAR")"
+else
+    print_warning "No CDS archive found, run ./gradlew cdsArchive"
+fi
+
+if [ -x "$NATIVE_BINARY" ]; then
+    benchmark "native" "$NATIVE_BINARY"
+else
+    print_warning "No native image found, run ./gradlew nativeCompile"
+fi
+
+print_step "Summary (time to first successful request, RSS)"
+cat "$SUMMARY"
+rm -f "$SUMMARY" "$RUN_LOG"